@@ -0,0 +1,42 @@
+#!/bin/sh
+# Starts Personal Finance Manager from the IntelliJ build output.
+#
+#   ./run.sh [args]         normal start; args go to Main (e.g. --verify-rollups)
+#   ./run.sh --cds [args]   start with an AppCDS class-data archive (JDK 13 or later). The first
+#                           run records the app, sqlite-jdbc and jfreechart classes it loaded
+#                           into out/finance-manager.jsa when it exits; later runs map that
+#                           archive instead of loading and verifying those classes again.
+#                           The archive is recorded again whenever the app classes change.
+#
+# JAVA_OPTS is passed to the JVM, e.g. JAVA_OPTS=-Dfinance.edt.stallMs=100 to time every
+# event on the Swing thread and write stalls over 100 ms with their stacks to edt-report.txt.
+#
+# APP_CLASSES (default out/production/untitled4) and APP_LIB (default lib, holding the
+# sqlite-jdbc, jfreechart and jcommon jars) override where the classes are taken from.
+cd "$(dirname "$0")" || exit 1
+CLASSES=${APP_CLASSES:-out/production/untitled4}
+LIB=${APP_LIB:-lib}
+JAR=out/finance-manager.jar
+ARCHIVE=out/finance-manager.jsa
+
+LIBS=
+for jar in "$LIB"/sqlite-jdbc-*.jar "$LIB"/jfreechart-*.jar "$LIB"/jcommon-*.jar; do
+    [ -f "$jar" ] && LIBS="$LIBS:$jar"
+done
+
+if [ "$1" != "--cds" ]; then
+    exec java $JAVA_OPTS -cp "$CLASSES$LIBS" Main "$@"
+fi
+shift
+
+# CDS only archives classes loaded from jar files, so the class directory is packed first.
+# The archive is tied to the exact jars it was recorded with; the JVM ignores a stale one.
+if [ ! -f "$JAR" ] || [ -n "$(find "$CLASSES" -type f -newer "$JAR" | head -n 1)" ]; then
+    jar cf "$JAR" -C "$CLASSES" . || exit 1
+    rm -f "$ARCHIVE"
+fi
+if [ -f "$ARCHIVE" ]; then
+    exec java $JAVA_OPTS -XX:SharedArchiveFile="$ARCHIVE" -cp "$JAR$LIBS" Main "$@"
+fi
+echo "Recording $ARCHIVE on exit; it is used from the next start on"
+exec java $JAVA_OPTS -XX:ArchiveClassesAtExit="$ARCHIVE" -Xlog:cds=off -cp "$JAR$LIBS" Main "$@"
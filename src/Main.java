@@ -1,14 +1,13 @@
+import com.financemanager.DatabaseMaintenance;
 import com.financemanager.PersonalFinanceManager;
 
-import javax.swing.*;
-
 //TIP To <b>Run</b> code, press <shortcut actionId="Run"/> or
 // click the <icon src="AllIcons.Actions.Execute"/> icon in the gutter.
 public class Main {
     public static void main(String[] args) {
-        SwingUtilities.invokeLater(() -> {
-            PersonalFinanceManager app = new PersonalFinanceManager();
-            app.setVisible(true);
-        });
+        if (args.length > 0) {
+            System.exit(DatabaseMaintenance.run(args));
+        }
+        PersonalFinanceManager.launch();
     }
 }
\ No newline at end of file
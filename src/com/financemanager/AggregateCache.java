@@ -0,0 +1,116 @@
+package com.financemanager;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+// Size-bounded LRU cache for per-user aggregate results. Writers invalidate a user's
+// entries; a per-user generation stops a load that raced with a write from being stored.
+// A load that fails throws through get() and stores nothing, so the next call reads again.
+class AggregateCache {
+    interface Loader<T> {
+        T load() throws SQLException;
+    }
+
+    private static final class Key {
+        private final int userId;
+        private final String name;
+
+        Key(int userId, String name) {
+            this.userId = userId;
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return userId == other.userId && name.equals(other.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, name);
+        }
+    }
+
+    private final int capacity;
+    private final LinkedHashMap<Key, Object> entries;
+    private final Map<Integer, Long> generations = new HashMap<>();
+    private long globalGeneration;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public AggregateCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<Key, Object>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+                if (size() > AggregateCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(int userId, String name, Loader<T> loader) throws SQLException {
+        Key key = new Key(userId, name);
+        long generation;
+        synchronized (this) {
+            Object cached = entries.get(key);
+            if (cached != null) {
+                hits++;
+                return (T) cached;
+            }
+            misses++;
+            generation = generationOf(userId);
+        }
+
+        T value = loader.load();
+        synchronized (this) {
+            if (value != null && generationOf(userId) == generation) {
+                entries.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    private long generationOf(int userId) {
+        return globalGeneration + generations.getOrDefault(userId, 0L);
+    }
+
+    public synchronized void invalidateUser(int userId) {
+        generations.merge(userId, 1L, Long::sum);
+        entries.keySet().removeIf(key -> key.userId == userId);
+    }
+
+    public synchronized void invalidateAll() {
+        globalGeneration++;
+        entries.clear();
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    public synchronized double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+}
@@ -0,0 +1,202 @@
+package com.financemanager;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+// One user's transactions held as primitive columns (epoch day, amount in minor units,
+// category code, type flag), so range and group-by analytics are a pass over arrays instead of
+// a query, and time series per type are built from the columns on first use. Histories of
+// PARALLEL_THRESHOLD rows or more are scanned with a parallel stream on the fork-join pool.
+// Rows are keyed by transaction id, which makes data events idempotent: an
+// event for a write the initial load already saw changes nothing. Confined to the EDT, as
+// LiveSummary is; a parallel scan completes before its query returns.
+final class AnalyticsEngine {
+    static final byte OTHER = 0;
+    static final byte INCOME = 1;
+    static final byte EXPENSE = 2;
+    private static final int PARALLEL_THRESHOLD = 50_000;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private final int userId;
+    private int size;
+    private int[] ids = new int[1024];
+    private int[] days = new int[1024];
+    private long[] amounts = new long[1024];
+    private int[] categories = new int[1024];
+    private byte[] types = new byte[1024];
+    // Row + 1 per transaction id, 0 when the id is not held; ids are dense autoincrement values
+    private int[] rowById = new int[1024];
+    // Prefix sums per type flag, built on first use and kept current by put and remove
+    private final TimeSeries[] series = new TimeSeries[3];
+
+    public AnalyticsEngine(int userId) {
+        this.userId = userId;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    static byte typeOf(String type) {
+        return "Expense".equals(type) ? EXPENSE : "Income".equals(type) ? INCOME : OTHER;
+    }
+
+    // Adds the transaction's row, or overwrites it when the id is already held
+    public void put(int id, long epochMillis, String category, long amountMinor, String type) {
+        if (id >= rowById.length) {
+            rowById = Arrays.copyOf(rowById, Math.max(id + 1, rowById.length * 2));
+        }
+        int row = rowById[id] - 1;
+        if (row < 0) {
+            if (size == ids.length) {
+                grow();
+            }
+            row = size++;
+            ids[row] = id;
+            rowById[id] = row + 1;
+        } else {
+            record(row, -1);
+        }
+        days[row] = (int) Math.floorDiv(epochMillis, MILLIS_PER_DAY);
+        amounts[row] = amountMinor;
+        categories[row] = TransactionPage.CATEGORIES.codeOf(category);
+        types[row] = typeOf(type);
+        record(row, 1);
+    }
+
+    public void put(Transaction t) {
+        put(t.getId(), TransactionRowMapper.toEpochMillis(t.getDate()), t.getCategory(), t.getAmountMinor(), t.getType());
+    }
+
+    // Moves the last row into the removed one's place
+    public void remove(int id) {
+        int row = id < rowById.length ? rowById[id] - 1 : -1;
+        if (row < 0) {
+            return;
+        }
+        record(row, -1);
+        int last = --size;
+        if (row != last) {
+            ids[row] = ids[last];
+            days[row] = days[last];
+            amounts[row] = amounts[last];
+            categories[row] = categories[last];
+            types[row] = types[last];
+            rowById[ids[row]] = row + 1;
+        }
+        rowById[id] = 0;
+    }
+
+    // Adds a row to, or with sign -1 takes it out of, the time series built so far
+    private void record(int row, int sign) {
+        TimeSeries typeSeries = series[types[row]];
+        if (typeSeries != null) {
+            typeSeries.add(days[row], categories[row], sign * amounts[row]);
+        }
+    }
+
+    // Daily prefix sums per category for one type flag
+    public TimeSeries getTimeSeries(byte type) {
+        if (series[type] == null) {
+            series[type] = TimeSeries.of(size, days, categories, amounts, types, type);
+        }
+        return series[type];
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        days = Arrays.copyOf(days, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+        types = Arrays.copyOf(types, capacity);
+    }
+
+    // Applies this user's transaction events; true when a bulk write means the caller must
+    // load the engine again
+    public boolean apply(List<DataEvent> events) {
+        for (DataEvent event : events) {
+            if (event instanceof DataEvent.TransactionsReloaded) {
+                if (((DataEvent.TransactionsReloaded) event).affects(userId)) {
+                    return true;
+                }
+                continue;
+            }
+            if (event.getUserId() != userId) {
+                continue;
+            }
+            if (event instanceof DataEvent.TransactionAdded) {
+                put(((DataEvent.TransactionAdded) event).getTransaction());
+            } else if (event instanceof DataEvent.TransactionUpdated) {
+                put(((DataEvent.TransactionUpdated) event).getAfter());
+            } else if (event instanceof DataEvent.TransactionDeleted) {
+                remove(((DataEvent.TransactionDeleted) event).getTransaction().getId());
+            }
+        }
+        return false;
+    }
+
+    // Total of one type dated from..to inclusive; a null end leaves that side open
+    public Money sum(byte type, LocalDate from, LocalDate to) {
+        int lo = firstDay(from);
+        int hi = lastDay(to);
+        int[] days = this.days;
+        long[] amounts = this.amounts;
+        byte[] types = this.types;
+        return Money.ofMinor(rows()
+                .filter(row -> types[row] == type && days[row] >= lo && days[row] <= hi)
+                .mapToLong(row -> amounts[row])
+                .sum());
+    }
+
+    // Totals of one type per category, in category code order; categories at zero are left out
+    public Map<String, Money> sumByCategory(byte type, LocalDate from, LocalDate to) {
+        int lo = firstDay(from);
+        int hi = lastDay(to);
+        int codes = TransactionPage.CATEGORIES.size();
+        int[] days = this.days;
+        long[] amounts = this.amounts;
+        int[] categories = this.categories;
+        byte[] types = this.types;
+        long[] totals = rows().collect(() -> new long[codes], (acc, row) -> {
+            if (types[row] == type && days[row] >= lo && days[row] <= hi) {
+                acc[categories[row]] += amounts[row];
+            }
+        }, AnalyticsEngine::addInto);
+
+        Map<String, Money> result = new LinkedHashMap<>();
+        for (int code = 0; code < codes; code++) {
+            if (totals[code] != 0) {
+                result.put(TransactionPage.CATEGORIES.valueOf(code), Money.ofMinor(totals[code]));
+            }
+        }
+        return result;
+    }
+
+    private IntStream rows() {
+        IntStream rows = IntStream.range(0, size);
+        return size >= PARALLEL_THRESHOLD ? rows.parallel() : rows;
+    }
+
+    private static void addInto(long[] target, long[] source) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] += source[i];
+        }
+    }
+
+    private static int firstDay(LocalDate from) {
+        return from == null ? Integer.MIN_VALUE : (int) from.toEpochDay();
+    }
+
+    private static int lastDay(LocalDate to) {
+        return to == null ? Integer.MAX_VALUE : (int) to.toEpochDay();
+    }
+}
@@ -0,0 +1,42 @@
+package com.financemanager;
+
+import java.time.LocalDate;
+
+// Date ranges the analytics charts can be scoped to, each ending today
+enum AnalyticsRange {
+    ALL_TIME("All time"),
+    THIS_YEAR("This year"),
+    LAST_12_MONTHS("Last 12 months"),
+    LAST_90_DAYS("Last 90 days"),
+    LAST_30_DAYS("Last 30 days");
+
+    private final String label;
+
+    AnalyticsRange(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public static AnalyticsRange of(String label) {
+        for (AnalyticsRange range : values()) {
+            if (range.label.equals(label)) {
+                return range;
+            }
+        }
+        throw new IllegalArgumentException("Unknown analytics range: " + label);
+    }
+
+    // First day of the range, null for all time
+    public LocalDate from(LocalDate today) {
+        switch (this) {
+            case THIS_YEAR: return today.withDayOfYear(1);
+            case LAST_12_MONTHS: return today.minusMonths(12).plusDays(1);
+            case LAST_90_DAYS: return today.minusDays(89);
+            case LAST_30_DAYS: return today.minusDays(29);
+            default: return null;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.financemanager;
+
+import javax.swing.SwingUtilities;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Runs DatabaseManager calls on a small pool of background threads so SQLite I/O never
+// blocks the event dispatch thread. Results are handed back to Swing through onEdt.
+class AsyncDataService {
+    private static final int THREADS = 4;
+    static final int RECENT_TRANSACTIONS = 5;
+
+    // Everything the main window shows after login or a refresh, loaded in one task
+    static class Snapshot {
+        private final DashboardSummary summary;
+        private final List<Transaction> recentTransactions;
+        private final List<BudgetStatus> budgets;
+        private final Map<String, Money> monthlyExpenses;
+
+        Snapshot(DashboardSummary summary, List<Transaction> recentTransactions,
+                 List<BudgetStatus> budgets, Map<String, Money> monthlyExpenses) {
+            this.summary = summary;
+            this.recentTransactions = recentTransactions;
+            this.budgets = budgets;
+            this.monthlyExpenses = monthlyExpenses;
+        }
+
+        public DashboardSummary getSummary() {
+            return summary;
+        }
+
+        public List<Transaction> getRecentTransactions() {
+            return recentTransactions;
+        }
+
+        public List<BudgetStatus> getBudgets() {
+            return budgets;
+        }
+
+        public Map<String, Money> getMonthlyExpenses() {
+            return monthlyExpenses;
+        }
+    }
+
+    private final DatabaseManager dbManager;
+    private final AuthenticationManager authManager;
+    private final ExecutorService executor;
+
+    public AsyncDataService(DatabaseManager dbManager, AuthenticationManager authManager) {
+        this.dbManager = dbManager;
+        this.authManager = authManager;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "finance-data-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public <T> CompletableFuture<T> submit(Function<DatabaseManager, T> work) {
+        return CompletableFuture.supplyAsync(() -> work.apply(dbManager), executor);
+    }
+
+    public CompletableFuture<User> authenticate(String username, String password) {
+        return CompletableFuture.supplyAsync(() -> authManager.authenticate(username, password), executor);
+    }
+
+    public CompletableFuture<Boolean> createUser(String username, String password) {
+        return CompletableFuture.supplyAsync(() -> authManager.createUser(username, password), executor);
+    }
+
+    public CompletableFuture<Snapshot> loadSnapshot(int userId) {
+        return submit(db -> new Snapshot(
+                db.getDashboardSummary(userId),
+                db.getRecentTransactions(userId, RECENT_TRANSACTIONS),
+                db.getBudgetStatus(userId, LocalDate.now()),
+                db.getMonthlyExpenses(userId)));
+    }
+
+    public CompletableFuture<List<BudgetStatus>> getBudgetStatus(int userId, LocalDate day) {
+        return submit(db -> db.getBudgetStatus(userId, day));
+    }
+
+    public CompletableFuture<AnalyticsEngine> loadAnalytics(int userId) {
+        return submit(db -> db.loadAnalytics(userId));
+    }
+
+    public CompletableFuture<SpendingForecast> getSpendingForecast(int userId, YearMonth month,
+                                                                  SpendingForecast previous) {
+        return submit(db -> db.getSpendingForecast(userId, month, previous));
+    }
+
+    public CompletableFuture<Transaction> getTransactionById(int id) {
+        return submit(db -> db.getTransactionById(id));
+    }
+
+    public CompletableFuture<Integer> getTransactionCount(int userId) {
+        return submit(db -> db.getTransactionCount(userId));
+    }
+
+    public CompletableFuture<Integer> getTransactionCount(TransactionQuery query) {
+        return submit(db -> db.getTransactionCount(query));
+    }
+
+    public CompletableFuture<Boolean> addTransaction(Transaction transaction) {
+        return submit(db -> db.addTransaction(transaction));
+    }
+
+    public CompletableFuture<Boolean> updateTransaction(Transaction transaction) {
+        return submit(db -> db.updateTransaction(transaction));
+    }
+
+    public CompletableFuture<Boolean> deleteTransaction(int transactionId) {
+        return submit(db -> db.deleteTransaction(transactionId));
+    }
+
+    public CompletableFuture<Boolean> addBudget(Budget budget) {
+        return submit(db -> db.addBudget(budget));
+    }
+
+    // Applies the result on the EDT; failures are logged and skip the action, cancellations
+    // skip it silently
+    static <T> void onEdt(CompletableFuture<T> future, Consumer<T> action) {
+        onEdt(future, action, () -> { });
+    }
+
+    static <T> void onEdt(CompletableFuture<T> future, Consumer<T> action, Runnable onFailure) {
+        future.whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+            if (error != null) {
+                if (!(error instanceof CancellationException)) {
+                    error.printStackTrace();
+                }
+                onFailure.run();
+            } else {
+                action.accept(result);
+            }
+        }));
+    }
+
+    // Lets queued work finish before the database is closed
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.financemanager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+class AuthenticationManager {
+    private DatabaseManager dbManager;
+
+    public AuthenticationManager(DatabaseManager dbManager) {
+        this.dbManager = dbManager;
+    }
+
+    public User authenticate(String username, String password) {
+        User user = dbManager.getUser(username);
+        if (user != null && verifyPassword(password, user.getPasswordHash())) {
+            return user;
+        }
+        return null;
+    }
+
+    public boolean createUser(String username, String password) {
+        if (dbManager.getUser(username) != null) {
+            return false; // Username already exists
+        }
+        String passwordHash = hashPassword(password);
+        return dbManager.createUser(username, passwordHash);
+    }
+
+    private String hashPassword(String password) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(password.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hexString = new StringBuilder();
+            for (byte b : hash) {
+                String hex = Integer.toHexString(0xff & b);
+                if (hex.length() == 1) hexString.append('0');
+                hexString.append(hex);
+            }
+            return hexString.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Failed to hash password", e);
+        }
+    }
+
+    private boolean verifyPassword(String password, String storedHash) {
+        return hashPassword(password).equals(storedHash);
+    }
+}
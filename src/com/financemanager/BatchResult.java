@@ -0,0 +1,55 @@
+package com.financemanager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Outcome of a bulk write: how many rows were applied and which input rows failed
+class BatchResult {
+    static class Failure {
+        private final int index;
+        private final String message;
+
+        Failure(int index, String message) {
+            this.index = index;
+            this.message = message;
+        }
+
+        // Position of the failed row in the caller's collection
+        public int getIndex() {
+            return index;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return "#" + index + ": " + message;
+        }
+    }
+
+    private int succeeded;
+    private final List<Failure> failures = new ArrayList<>();
+
+    void recordSuccess() {
+        succeeded++;
+    }
+
+    void recordFailure(int index, String message) {
+        failures.add(new Failure(index, message));
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public List<Failure> getFailures() {
+        return Collections.unmodifiableList(failures);
+    }
+
+    public boolean isComplete() {
+        return failures.isEmpty();
+    }
+}
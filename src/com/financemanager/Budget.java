@@ -0,0 +1,52 @@
+package com.financemanager;
+
+import javax.swing.SwingUtilities;
+import java.time.LocalDate;
+
+class Budget {
+    private int id;
+    private int userId;
+    private String category;
+    private Money amount;
+    private BudgetPeriod period;
+    private LocalDate startDate;
+    public Budget(int id, int userId, String category, Money amount, BudgetPeriod period, LocalDate startDate) {
+        this.id = id;
+        this.userId = userId;
+        this.category = category;
+        this.amount = amount;
+        this.period = period;
+        this.startDate = startDate;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public Money getAmount() {
+        return amount;
+    }
+
+    public BudgetPeriod getPeriod() {
+        return period;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+public static void main(String[] args) {
+    SwingUtilities.invokeLater(() -> {
+        PersonalFinanceManager app = new PersonalFinanceManager();
+        app.setVisible(true);
+    });
+}
+}
@@ -0,0 +1,60 @@
+package com.financemanager;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+// How often a budget resets. Windows repeat from the budget's start date, so a monthly budget
+// starting on the 1st covers calendar months; a start on the 31st clamps to shorter month ends.
+// Stored in budgets.period by label, as transaction types are.
+enum BudgetPeriod {
+    WEEKLY("Weekly", ChronoUnit.WEEKS),
+    MONTHLY("Monthly", ChronoUnit.MONTHS),
+    YEARLY("Yearly", ChronoUnit.YEARS);
+
+    private final String label;
+    private final ChronoUnit unit;
+
+    BudgetPeriod(String label, ChronoUnit unit) {
+        this.label = label;
+        this.unit = unit;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public static BudgetPeriod of(String label) {
+        for (BudgetPeriod period : values()) {
+            if (period.label.equals(label)) {
+                return period;
+            }
+        }
+        throw new IllegalArgumentException("Unknown budget period: " + label);
+    }
+
+    // First day of the window holding day; days before the start fall in the first window
+    public LocalDate windowStart(LocalDate start, LocalDate day) {
+        return nth(start, windowIndex(start, day));
+    }
+
+    // Last day of the window holding day
+    public LocalDate windowEnd(LocalDate start, LocalDate day) {
+        return nth(start, windowIndex(start, day) + 1).minusDays(1);
+    }
+
+    private long windowIndex(LocalDate start, LocalDate day) {
+        long windows = Math.max(0, unit.between(start, day));
+        // between() counts whole periods by day of month, which misses a clamped boundary:
+        // from Jan 31 the second window starts Feb 28 although Jan 31 to Feb 28 is not a month
+        if (!nth(start, windows + 1).isAfter(day)) {
+            windows++;
+        }
+        return windows;
+    }
+
+    // Counted from the start each time rather than step by step, so a clamped Feb 28 does not
+    // carry over into Mar 28
+    private LocalDate nth(LocalDate start, long windows) {
+        return start.plus(windows, unit);
+    }
+}
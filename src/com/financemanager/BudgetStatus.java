@@ -0,0 +1,48 @@
+package com.financemanager;
+
+import java.time.LocalDate;
+
+// One budget with what has been spent in its category during the budget's current window,
+// as returned by the joined budget query
+class BudgetStatus {
+    private final Budget budget;
+    private final LocalDate windowStart;
+    private final LocalDate windowEnd;
+    private final Money spent;
+
+    // Window is the one holding day
+    public BudgetStatus(Budget budget, LocalDate day, Money spent) {
+        this.budget = budget;
+        this.windowStart = budget.getPeriod().windowStart(budget.getStartDate(), day);
+        this.windowEnd = budget.getPeriod().windowEnd(budget.getStartDate(), day);
+        this.spent = spent;
+    }
+
+    public Budget getBudget() {
+        return budget;
+    }
+
+    public String getCategory() {
+        return budget.getCategory();
+    }
+
+    public Money getAmount() {
+        return budget.getAmount();
+    }
+
+    public LocalDate getWindowStart() {
+        return windowStart;
+    }
+
+    public LocalDate getWindowEnd() {
+        return windowEnd;
+    }
+
+    public Money getSpent() {
+        return spent;
+    }
+
+    public Money getRemaining() {
+        return budget.getAmount().minus(spent);
+    }
+}
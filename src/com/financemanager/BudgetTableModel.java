@@ -0,0 +1,106 @@
+package com.financemanager;
+
+import javax.swing.table.AbstractTableModel;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Budget rows as parallel primitive columns; remaining and status are derived on read and
+// amounts are handed to the renderer as minor units, formatted only when a cell is painted
+@SuppressWarnings("serial") // Never serialized
+class BudgetTableModel extends AbstractTableModel {
+    static final String ON_TRACK = "On Track";
+    static final String OVER_BUDGET = "Over Budget";
+    private static final String[] COLUMNS = {"Category", "Period", "Budget", "Spent", "Remaining", "Status"};
+    private static final DateTimeFormatter WINDOW_FORMAT = DateTimeFormatter.ofPattern("MMM d");
+    private static final BudgetPeriod[] PERIODS = BudgetPeriod.values();
+
+    private int size;
+    private int[] categories = new int[16];
+    private int[] periods = new int[16];
+    // Current window as epoch days, both ends inclusive
+    private long[] windowStarts = new long[16];
+    private long[] windowEnds = new long[16];
+    private long[] budgets = new long[16];
+    private long[] spent = new long[16];
+    private final Map<String, Integer> rowByCategory = new HashMap<>();
+
+    // Adds the category's row or updates it in place
+    public void setRow(String category, BudgetPeriod period, LocalDate windowStart, LocalDate windowEnd,
+                       long budgetMinor, long spentMinor) {
+        Integer row = rowByCategory.get(category);
+        boolean inserted = row == null;
+        if (inserted) {
+            if (size == categories.length) {
+                categories = Arrays.copyOf(categories, size * 2);
+                periods = Arrays.copyOf(periods, size * 2);
+                windowStarts = Arrays.copyOf(windowStarts, size * 2);
+                windowEnds = Arrays.copyOf(windowEnds, size * 2);
+                budgets = Arrays.copyOf(budgets, size * 2);
+                spent = Arrays.copyOf(spent, size * 2);
+            }
+            row = size++;
+            rowByCategory.put(category, row);
+            categories[row] = TransactionPage.CATEGORIES.codeOf(category);
+        } else if (periods[row] == period.ordinal() && windowStarts[row] == windowStart.toEpochDay()
+                && windowEnds[row] == windowEnd.toEpochDay()
+                && budgets[row] == budgetMinor && spent[row] == spentMinor) {
+            return;
+        }
+        periods[row] = period.ordinal();
+        windowStarts[row] = windowStart.toEpochDay();
+        windowEnds[row] = windowEnd.toEpochDay();
+        budgets[row] = budgetMinor;
+        spent[row] = spentMinor;
+        if (inserted) {
+            fireTableRowsInserted(row, row);
+        } else {
+            fireTableRowsUpdated(row, row);
+        }
+    }
+
+    public void clear() {
+        int rows = size;
+        size = 0;
+        rowByCategory.clear();
+        if (rows > 0) {
+            fireTableRowsDeleted(0, rows - 1);
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return size;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return column >= 2 && column <= 4 ? Long.class : String.class;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        switch (column) {
+            case 0: return TransactionPage.CATEGORIES.valueOf(categories[row]);
+            case 1: return PERIODS[periods[row]].getLabel() + ", "
+                    + LocalDate.ofEpochDay(windowStarts[row]).format(WINDOW_FORMAT) + " - "
+                    + LocalDate.ofEpochDay(windowEnds[row]).format(WINDOW_FORMAT);
+            case 2: return budgets[row];
+            case 3: return spent[row];
+            case 4: return budgets[row] - spent[row];
+            default: return budgets[row] >= spent[row] ? ON_TRACK : OVER_BUDGET;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.financemanager;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+// Budget and spend in the current window per budgeted category for one user, seeded from the
+// joined budget query and then moved by each transaction write, so budget views never query
+// per category. Expenses dated outside a budget's window leave it alone; when a day rolls
+// over, advanceTo() moves the windows that ended and names them so only those are reloaded.
+class BudgetTracker {
+    private static final class Entry {
+        private final Budget budget;
+        private LocalDate windowStart;
+        private LocalDate windowEnd;
+        private long spent;
+
+        Entry(BudgetStatus status) {
+            this.budget = status.getBudget();
+            this.windowStart = status.getWindowStart();
+            this.windowEnd = status.getWindowEnd();
+            this.spent = status.getSpent().getMinorUnits();
+        }
+
+        boolean contains(LocalDate day) {
+            return !day.isBefore(windowStart) && !day.isAfter(windowEnd);
+        }
+    }
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private long totalBudget;
+    private long totalSpent;
+
+    public BudgetTracker(Iterable<BudgetStatus> statuses) {
+        for (BudgetStatus status : statuses) {
+            setBudget(status);
+        }
+    }
+
+    // Adds or replaces a category's budget, window and spend
+    public void setBudget(BudgetStatus status) {
+        Entry entry = new Entry(status);
+        Entry previous = entries.put(status.getCategory(), entry);
+        if (previous != null) {
+            totalBudget -= previous.budget.getAmount().getMinorUnits();
+            totalSpent -= previous.spent;
+        }
+        totalBudget += entry.budget.getAmount().getMinorUnits();
+        totalSpent += entry.spent;
+    }
+
+    // Moves a category's spend by an expense written, changed or removed; false when the
+    // category has no budget or the expense is dated outside its window
+    public boolean addSpent(String category, LocalDate day, long amountMinor) {
+        Entry entry = entries.get(category);
+        if (entry == null || !entry.contains(day)) {
+            return false;
+        }
+        entry.spent += amountMinor;
+        totalSpent += amountMinor;
+        return true;
+    }
+
+    // Moves every window to the one holding today and returns the categories whose window
+    // changed. Their spend restarts at zero until the caller reloads it for the new window,
+    // which covers expenses already dated into it.
+    public Set<String> advanceTo(LocalDate today) {
+        Set<String> moved = new LinkedHashSet<>();
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            Entry entry = e.getValue();
+            if (entry.contains(today)) {
+                continue;
+            }
+            LocalDate start = entry.budget.getPeriod().windowStart(entry.budget.getStartDate(), today);
+            if (start.equals(entry.windowStart)) {
+                continue; // Before the first window
+            }
+            entry.windowStart = start;
+            entry.windowEnd = entry.budget.getPeriod().windowEnd(entry.budget.getStartDate(), today);
+            totalSpent -= entry.spent;
+            entry.spent = 0;
+            moved.add(e.getKey());
+        }
+        return moved;
+    }
+
+    public boolean hasBudget(String category) {
+        return entries.containsKey(category);
+    }
+
+    public Set<String> getCategories() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    // Null when the category has no budget
+    public Budget getBudget(String category) {
+        Entry entry = entries.get(category);
+        return entry == null ? null : entry.budget;
+    }
+
+    public LocalDate getWindowStart(String category) {
+        Entry entry = entries.get(category);
+        return entry == null ? null : entry.windowStart;
+    }
+
+    public LocalDate getWindowEnd(String category) {
+        Entry entry = entries.get(category);
+        return entry == null ? null : entry.windowEnd;
+    }
+
+    public Money getSpent(String category) {
+        Entry entry = entries.get(category);
+        return entry == null ? Money.ZERO : Money.ofMinor(entry.spent);
+    }
+
+    public Money getRemaining(String category) {
+        Entry entry = entries.get(category);
+        return entry == null ? Money.ZERO : entry.budget.getAmount().minus(Money.ofMinor(entry.spent));
+    }
+
+    public Money getTotalBudget() {
+        return Money.ofMinor(totalBudget);
+    }
+
+    // Spend in budgeted categories within their current windows
+    public Money getTotalSpent() {
+        return Money.ofMinor(totalSpent);
+    }
+}
@@ -0,0 +1,45 @@
+package com.financemanager;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Per-user totals computed in one grouped pass, shared by every panel during a refresh
+class DashboardSummary {
+    private final Money totalIncome;
+    private final Money totalExpenses;
+    private final int transactionCount;
+    private final Map<String, Money> expensesByCategory;
+
+    public DashboardSummary(Money totalIncome, Money totalExpenses, int transactionCount,
+                            Map<String, Money> expensesByCategory) {
+        this.totalIncome = totalIncome;
+        this.totalExpenses = totalExpenses;
+        this.transactionCount = transactionCount;
+        this.expensesByCategory = Collections.unmodifiableMap(new LinkedHashMap<>(expensesByCategory));
+    }
+
+    public Money getTotalIncome() {
+        return totalIncome;
+    }
+
+    public Money getTotalExpenses() {
+        return totalExpenses;
+    }
+
+    public Money getBalance() {
+        return totalIncome.minus(totalExpenses);
+    }
+
+    public int getTransactionCount() {
+        return transactionCount;
+    }
+
+    public Map<String, Money> getExpensesByCategory() {
+        return expensesByCategory;
+    }
+
+    public Money getSpentInCategory(String category) {
+        return expensesByCategory.getOrDefault(category, Money.ZERO);
+    }
+}
@@ -0,0 +1,91 @@
+package com.financemanager;
+
+// Domain changes published by DatabaseManager's write paths once they have committed
+abstract class DataEvent {
+    private final int userId;
+
+    DataEvent(int userId) {
+        this.userId = userId;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    static final class TransactionAdded extends DataEvent {
+        private final Transaction transaction;
+
+        TransactionAdded(Transaction transaction) {
+            super(transaction.getUserId());
+            this.transaction = transaction;
+        }
+
+        public Transaction getTransaction() {
+            return transaction;
+        }
+    }
+
+    static final class TransactionUpdated extends DataEvent {
+        private final Transaction before;
+        private final Transaction after;
+
+        TransactionUpdated(Transaction before, Transaction after) {
+            super(before.getUserId());
+            this.before = before;
+            this.after = after;
+        }
+
+        public Transaction getBefore() {
+            return before;
+        }
+
+        public Transaction getAfter() {
+            return after;
+        }
+    }
+
+    static final class TransactionDeleted extends DataEvent {
+        private final Transaction transaction;
+
+        TransactionDeleted(Transaction transaction) {
+            super(transaction.getUserId());
+            this.transaction = transaction;
+        }
+
+        public Transaction getTransaction() {
+            return transaction;
+        }
+    }
+
+    // Carries the budget's spend in its current window, read right after the write
+    static final class BudgetChanged extends DataEvent {
+        private final BudgetStatus status;
+
+        BudgetChanged(BudgetStatus status) {
+            super(status.getBudget().getUserId());
+            this.status = status;
+        }
+
+        public Budget getBudget() {
+            return status.getBudget();
+        }
+
+        public BudgetStatus getStatus() {
+            return status;
+        }
+    }
+
+    // Bulk writes whose rows are not tracked one by one; subscribers reload.
+    // A userId of ALL_USERS means the owners are unknown.
+    static final class TransactionsReloaded extends DataEvent {
+        static final int ALL_USERS = -1;
+
+        TransactionsReloaded(int userId) {
+            super(userId);
+        }
+
+        public boolean affects(int userId) {
+            return getUserId() == ALL_USERS || getUserId() == userId;
+        }
+    }
+}
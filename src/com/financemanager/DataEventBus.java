@@ -0,0 +1,67 @@
+package com.financemanager;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Delivers DataEvents to Swing subscribers. Events can be published from any thread;
+// they are queued and handed over on the EDT in one batch per COALESCE_DELAY_MS window,
+// so a burst of writes costs each subscriber a single update and repaint.
+class DataEventBus {
+    interface Listener {
+        void onEvents(List<DataEvent> events);
+    }
+
+    private static final int COALESCE_DELAY_MS = 50;
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final ConcurrentLinkedQueue<DataEvent> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Timer flushTimer;
+
+    public DataEventBus() {
+        flushTimer = new Timer(COALESCE_DELAY_MS, e -> flush());
+        flushTimer.setRepeats(false);
+    }
+
+    public void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void unsubscribe(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public void publish(DataEvent event) {
+        if (listeners.isEmpty()) {
+            return; // Nothing on screen to update, e.g. maintenance runs
+        }
+        pending.add(event);
+        if (flushScheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(flushTimer::start);
+        }
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+        List<DataEvent> batch = new ArrayList<>();
+        DataEvent event;
+        while ((event = pending.poll()) != null) {
+            batch.add(event);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        for (Listener listener : listeners) {
+            try {
+                listener.onEvents(batch);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.financemanager;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+// Command-line maintenance tasks, run instead of the UI when arguments are given
+public class DatabaseMaintenance {
+    // A plan step reading every row of transactions, with or without an index; the FTS table
+    // (transactions_fts) does not match
+    private static final Pattern FULL_SCAN = Pattern.compile("\\bSCAN (TABLE )?transactions\\b");
+    // A plan step sorting rows the index did not deliver in order, e.g. a whole filtered range
+    // for every page of it
+    private static final Pattern TEMP_SORT = Pattern.compile("\\bUSE TEMP B-TREE\\b");
+    private static final String USAGE = "Usage: [--rebuild-rollups | --rebuild-search-index | --verify-rollups | "
+            + "--explain-queries | --benchmark-reads [rows]]";
+    private static final String BENCHMARK_DB = "finance_manager_benchmark.db";
+    private static final int BENCHMARK_ROWS = 200_000;
+    private static final int BENCHMARK_RUNS = 6;
+
+    private DatabaseMaintenance() {
+    }
+
+    public static int run(String... args) {
+        if (args[0].equals("--benchmark-reads")) {
+            int rows = BENCHMARK_ROWS;
+            if (args.length > 1) {
+                try {
+                    rows = Integer.parseInt(args[1]);
+                } catch (NumberFormatException e) {
+                    rows = 0;
+                }
+            }
+            if (rows <= 0) {
+                System.err.println("Not a row count: " + args[1]);
+                System.err.println(USAGE);
+                return 2;
+            }
+            return benchmarkReads(rows);
+        }
+        DatabaseManager dbManager = new DatabaseManager();
+        try {
+            switch (args[0]) {
+                case "--rebuild-rollups":
+                    if (!dbManager.rebuildRollups()) {
+                        System.err.println("Rollup rebuild failed");
+                        return 1;
+                    }
+                    System.out.println("Rollups rebuilt");
+                    return 0;
+                case "--rebuild-search-index":
+                    if (!dbManager.rebuildSearchIndex()) {
+                        System.err.println("Search index rebuild failed");
+                        return 1;
+                    }
+                    System.out.println("Search index rebuilt");
+                    return 0;
+                case "--verify-rollups":
+                    List<String> mismatches = dbManager.verifyRollups();
+                    mismatches.forEach(System.out::println);
+                    System.out.println(mismatches.isEmpty() ? "Rollups are consistent"
+                            : mismatches.size() + " rollup mismatches");
+                    return mismatches.isEmpty() ? 0 : 1;
+                case "--explain-queries":
+                    Map<String, List<String>> plans = dbManager.explainQueries();
+                    if (plans == null) {
+                        System.err.println("Query plan check failed");
+                        return 1;
+                    }
+                    int scans = 0;
+                    List<String> sorted = new ArrayList<>();
+                    for (Map.Entry<String, List<String>> plan : plans.entrySet()) {
+                        boolean scan = plan.getValue().stream().anyMatch(step -> FULL_SCAN.matcher(step).find());
+                        boolean sort = plan.getValue().stream().anyMatch(step -> TEMP_SORT.matcher(step).find());
+                        scans += scan ? 1 : 0;
+                        if (sort) {
+                            sorted.add(plan.getKey());
+                        }
+                        System.out.println((scan ? "FULL SCAN: " : sort ? "TEMP SORT: " : "") + plan.getKey());
+                        plan.getValue().forEach(step -> System.out.println("    " + step));
+                    }
+                    // Known fallbacks (see TransactionSort) sort in a temp B-tree, so these are
+                    // listed for comparison between runs rather than failing the check
+                    System.out.println();
+                    System.out.println("Sorted in a temp B-tree:");
+                    sorted.forEach(sql -> System.out.println("    " + sql));
+                    System.out.println(plans.size() + " queries: " + scans + " scan transactions, "
+                            + sorted.size() + " sort in a temp B-tree");
+                    return scans == 0 ? 0 : 1;
+                default:
+                    System.err.println("Unknown command: " + args[0]);
+                    System.err.println(USAGE);
+                    return 2;
+            }
+        } finally {
+            dbManager.close();
+        }
+    }
+
+    // Times getAllTransactions over rows seeded into a scratch database next to the app's own,
+    // warm, best of BENCHMARK_RUNS; the scratch database is deleted afterwards
+    private static int benchmarkReads(int rows) {
+        deleteBenchmarkDatabase();
+        DatabaseManager dbManager = new DatabaseManager("jdbc:sqlite:" + BENCHMARK_DB);
+        try {
+            if (!dbManager.createUser("benchmark", "")) {
+                System.err.println("Benchmark setup failed");
+                return 1;
+            }
+            int userId = dbManager.getUser("benchmark").getId();
+            String[] categories = {"Food", "Transportation", "Entertainment", "Utilities", "Healthcare",
+                    "Shopping", "Education", "Travel", "Investment", "Other"};
+            Random random = new Random(42);
+            LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+            List<Transaction> transactions = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) {
+                transactions.add(new Transaction(0, userId, start.plusMinutes(random.nextInt(5 * 365 * 24 * 60)),
+                        "Benchmark transaction " + i, categories[random.nextInt(categories.length)],
+                        100 + random.nextInt(100_000), random.nextInt(5) == 0 ? "Income" : "Expense"));
+            }
+            if (!dbManager.addTransactions(transactions).isComplete()) {
+                System.err.println("Benchmark setup failed");
+                return 1;
+            }
+
+            dbManager.getAllTransactions(userId); // Warm-up
+            long best = Long.MAX_VALUE;
+            for (int run = 0; run < BENCHMARK_RUNS; run++) {
+                long started = System.nanoTime();
+                dbManager.getAllTransactions(userId);
+                best = Math.min(best, System.nanoTime() - started);
+            }
+            System.out.printf("getAllTransactions: %d rows in %.2f s, %,.0f rows/sec (warm, best of %d)%n",
+                    rows, best / 1e9, rows / (best / 1e9), BENCHMARK_RUNS);
+            return 0;
+        } finally {
+            dbManager.close();
+            deleteBenchmarkDatabase();
+        }
+    }
+
+    private static void deleteBenchmarkDatabase() {
+        for (String suffix : new String[]{"", "-wal", "-shm"}) {
+            new File(BENCHMARK_DB + suffix).delete();
+        }
+    }
+}
@@ -0,0 +1,1311 @@
+package com.financemanager;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+class DatabaseManager {
+    private static final String DB_URL = "jdbc:sqlite:finance_manager.db";
+    // The writer prepares a fixed handful of statements. Readers prepare the transaction listings:
+    // filter kinds x header sorts x first page, seek and jump, 178 statements per
+    // --explain-queries; 256 holds those with room for the multi-key sorts a user builds
+    private static final int STATEMENT_CACHE_SIZE = 32;
+    private static final int READ_STATEMENT_CACHE_SIZE = 256;
+    private static final int READ_POOL_SIZE = 4;
+    private static final int AGGREGATE_CACHE_SIZE = 256;
+    private static final String INSERT_TRANSACTION_SQL =
+            "INSERT INTO transactions (user_id, date, description, category, amount, type) " +
+                    "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_TRANSACTION_SQL =
+            "UPDATE transactions SET description = ?, category = ?, amount = ?, type = ? " +
+                    "WHERE id = ?";
+    private static final String DELETE_TRANSACTION_SQL = "DELETE FROM transactions WHERE id = ?";
+    private final String url;
+    private final Object writeLock = new Object();
+    private Connection connection; // single writer
+    private StatementCache statements;
+    private ReadConnectionPool readPool;
+    private final AggregateCache aggregates = new AggregateCache(AGGREGATE_CACHE_SIZE);
+    private final DataEventBus events = new DataEventBus();
+
+    private int batchChunkSize = 500;
+
+    private interface SqlWork<T> {
+        T run(StatementCache statements) throws SQLException;
+    }
+
+    private interface RowBinder<T> {
+        void bind(PreparedStatement pstmt, T row) throws SQLException;
+    }
+
+    public DatabaseManager() {
+        this(DB_URL);
+    }
+
+    // A database other than the app's own, e.g. a scratch file for benchmarks
+    DatabaseManager(String url) {
+        this.url = url;
+        initializeDatabase();
+    }
+
+    // Opens on a thread of its own so driver loading, the schema check and migrations overlap
+    // UI startup
+    static CompletableFuture<DatabaseManager> openAsync() {
+        return CompletableFuture.supplyAsync(DatabaseManager::new, task -> {
+            Thread thread = new Thread(task, "finance-db-open");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    private void initializeDatabase() {
+        try {
+            long started = StartupTimer.start();
+            connection = DriverManager.getConnection(url);
+            configureWriter();
+            StartupTimer.record("database connect", started);
+            started = StartupTimer.start();
+            createTables();
+            migrations().migrate(connection);
+            StartupTimer.record("schema check", started);
+            started = StartupTimer.start();
+            statements = new StatementCache(connection, STATEMENT_CACHE_SIZE);
+            readPool = new ReadConnectionPool(url, READ_POOL_SIZE, READ_STATEMENT_CACHE_SIZE);
+            StartupTimer.record("read pool", started);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void configureWriter() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            // WAL lets the read pool keep reading while this connection writes
+            stmt.execute("PRAGMA journal_mode = WAL");
+            stmt.execute("PRAGMA synchronous = NORMAL");
+            stmt.execute("PRAGMA busy_timeout = 5000");
+        }
+    }
+
+    // SELECTs run on a pooled read-only connection
+    private <T> T read(SqlWork<T> work) throws SQLException {
+        StatementCache readStatements = readPool.acquire();
+        try {
+            return work.run(readStatements);
+        } finally {
+            readPool.release(readStatements);
+        }
+    }
+
+    // INSERT/UPDATE/DELETE are serialized on the single writer connection. Writes publish
+    // their events before releasing the lock, so events are queued in commit order.
+    private <T> T write(SqlWork<T> work) throws SQLException {
+        synchronized (writeLock) {
+            return work.run(statements);
+        }
+    }
+
+    private void createTables() throws SQLException {
+        String createUsers = "CREATE TABLE IF NOT EXISTS users (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "username TEXT UNIQUE NOT NULL, " +
+                "password_hash TEXT NOT NULL, " +
+                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)";
+
+        String createTransactions = "CREATE TABLE IF NOT EXISTS transactions (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "user_id INTEGER NOT NULL, " +
+                "date TIMESTAMP NOT NULL, " +
+                "description TEXT NOT NULL, " +
+                "category TEXT NOT NULL, " +
+                "amount REAL NOT NULL, " +
+                "type TEXT NOT NULL, " +
+                "FOREIGN KEY (user_id) REFERENCES users (id))";
+
+        String createBudgets = "CREATE TABLE IF NOT EXISTS budgets (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "user_id INTEGER NOT NULL, " +
+                "category TEXT NOT NULL, " +
+                "amount REAL NOT NULL, " +
+                "FOREIGN KEY (user_id) REFERENCES users (id), " +
+                "UNIQUE(user_id, category))";
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute(createUsers);
+            stmt.execute(createTransactions);
+            stmt.execute(createBudgets);
+        }
+    }
+
+    // Schema changes applied on top of the base tables, in version order
+    static SchemaMigrator migrations() {
+        return new SchemaMigrator()
+                .add(1, "covering indexes for transaction queries",
+                        // getAllTransactions, getRecentTransactions, getTransactionCount
+                        "CREATE INDEX IF NOT EXISTS idx_transactions_user_date " +
+                                "ON transactions (user_id, date, id)",
+                        // getTotalIncome, getTotalExpenses, getMonthlyExpenses
+                        "CREATE INDEX IF NOT EXISTS idx_transactions_user_type_date " +
+                                "ON transactions (user_id, type, date, amount)",
+                        // getSpentInCategory, getExpensesByCategory
+                        "CREATE INDEX IF NOT EXISTS idx_transactions_user_category_type " +
+                                "ON transactions (user_id, category, type, amount)")
+                .add(2, "monthly category rollups maintained by triggers", connection -> {
+                    try (Statement stmt = connection.createStatement()) {
+                        stmt.execute("CREATE TABLE IF NOT EXISTS transaction_rollups (" +
+                                "user_id INTEGER NOT NULL, " +
+                                "month TEXT NOT NULL, " +
+                                "category TEXT NOT NULL, " +
+                                "type TEXT NOT NULL, " +
+                                "total REAL NOT NULL, " +
+                                "count INTEGER NOT NULL, " +
+                                "PRIMARY KEY (user_id, month, category, type)) WITHOUT ROWID");
+                        stmt.execute("CREATE INDEX IF NOT EXISTS idx_rollups_user_type_category " +
+                                "ON transaction_rollups (user_id, type, category, total)");
+                        for (String sql : rollupTriggers(TEXT_DATE_MONTH)) {
+                            stmt.execute(sql);
+                        }
+                    }
+                    rebuildRollups(connection, TEXT_DATE_MONTH);
+                })
+                .add(3, "store transaction dates as INTEGER epoch milliseconds", connection -> {
+                    SchemaMigrator.rebuildTable(connection, "transactions",
+                            "CREATE TABLE %s (" +
+                                    "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                                    "user_id INTEGER NOT NULL, " +
+                                    "date INTEGER NOT NULL, " +
+                                    "description TEXT NOT NULL, " +
+                                    "category TEXT NOT NULL, " +
+                                    "amount REAL NOT NULL, " +
+                                    "type TEXT NOT NULL, " +
+                                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                                    "FOREIGN KEY (user_id) REFERENCES users (id))",
+                            Collections.singletonMap("date",
+                                    "CAST(strftime('%s', date) AS INTEGER) * 1000 + " +
+                                            "CAST(substr(strftime('%f', date), 4) AS INTEGER)"));
+                    try (Statement stmt = connection.createStatement()) {
+                        for (String sql : rollupTriggers(ROLLUP_MONTH)) {
+                            stmt.execute(sql);
+                        }
+                    }
+                    rebuildRollups(connection, ROLLUP_MONTH);
+                })
+                .add(4, "store amounts as INTEGER minor units", connection -> {
+                    String toMinorUnits = "CAST(ROUND(amount * 100) AS INTEGER)";
+                    SchemaMigrator.rebuildTable(connection, "transactions",
+                            "CREATE TABLE %s (" +
+                                    "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                                    "user_id INTEGER NOT NULL, " +
+                                    "date INTEGER NOT NULL, " +
+                                    "description TEXT NOT NULL, " +
+                                    "category TEXT NOT NULL, " +
+                                    "amount INTEGER NOT NULL, " +
+                                    "type TEXT NOT NULL, " +
+                                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                                    "FOREIGN KEY (user_id) REFERENCES users (id))",
+                            Collections.singletonMap("amount", toMinorUnits));
+                    SchemaMigrator.rebuildTable(connection, "budgets",
+                            "CREATE TABLE %s (" +
+                                    "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                                    "user_id INTEGER NOT NULL, " +
+                                    "category TEXT NOT NULL, " +
+                                    "amount INTEGER NOT NULL, " +
+                                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                                    "FOREIGN KEY (user_id) REFERENCES users (id), " +
+                                    "UNIQUE(user_id, category))",
+                            Collections.singletonMap("amount", toMinorUnits));
+                    // Rollups are derived data: recreate rather than rename, since the
+                    // transactions triggers already reference transaction_rollups
+                    try (Statement stmt = connection.createStatement()) {
+                        stmt.execute("DROP TABLE transaction_rollups");
+                        stmt.execute("CREATE TABLE transaction_rollups (" +
+                                "user_id INTEGER NOT NULL, " +
+                                "month TEXT NOT NULL, " +
+                                "category TEXT NOT NULL, " +
+                                "type TEXT NOT NULL, " +
+                                "total INTEGER NOT NULL, " +
+                                "count INTEGER NOT NULL, " +
+                                "PRIMARY KEY (user_id, month, category, type)) WITHOUT ROWID");
+                        stmt.execute("CREATE INDEX idx_rollups_user_type_category " +
+                                "ON transaction_rollups (user_id, type, category, total)");
+                    }
+                    rebuildRollups(connection, ROLLUP_MONTH);
+                })
+                .add(5, "indexes for filtered, newest-first transaction pages",
+                        // TransactionQuery with a type and/or category, paged by (date, id)
+                        "CREATE INDEX IF NOT EXISTS idx_transactions_user_type_date_id " +
+                                "ON transactions (user_id, type, date, id)",
+                        "CREATE INDEX IF NOT EXISTS idx_transactions_user_category_date_id " +
+                                "ON transactions (user_id, category, date, id)")
+                .add(6, "full-text index over transaction descriptions", connection -> {
+                    try (Statement stmt = connection.createStatement()) {
+                        // External content: the index stores tokens only and reads rows from
+                        // transactions, so descriptions are not stored twice
+                        stmt.execute("CREATE VIRTUAL TABLE IF NOT EXISTS transactions_fts USING fts5(" +
+                                "description, content='transactions', content_rowid='id', " +
+                                "tokenize='unicode61 remove_diacritics 2', prefix='2 3')");
+                        for (String sql : searchTriggers()) {
+                            stmt.execute(sql);
+                        }
+                        stmt.execute("INSERT INTO transactions_fts (transactions_fts) VALUES ('rebuild')");
+                    }
+                })
+                .add(7, "indexes for transaction pages sorted by amount",
+                        // TransactionSort by amount, ties by date and id; sorts by category and
+                        // type use the (user_id, category|type, date, id) indexes of migration 5
+                        "CREATE INDEX IF NOT EXISTS idx_transactions_user_amount_date_id " +
+                                "ON transactions (user_id, amount, date, id)",
+                        "CREATE INDEX IF NOT EXISTS idx_transactions_user_category_amount_date_id " +
+                                "ON transactions (user_id, category, amount, date, id)")
+                .add(8, "budget periods and daily category rollups", connection -> {
+                    try (Statement stmt = connection.createStatement()) {
+                        // Budgets were lifetime totals; they become monthly budgets over calendar
+                        // months, the first one being the month they were created in
+                        stmt.execute("ALTER TABLE budgets ADD COLUMN period TEXT NOT NULL DEFAULT 'Monthly'");
+                        stmt.execute("ALTER TABLE budgets ADD COLUMN start_date INTEGER NOT NULL DEFAULT 0");
+                        stmt.execute("UPDATE budgets SET start_date = CAST(strftime('%s', " +
+                                "COALESCE(created_at, 'now'), 'start of month') AS INTEGER) * 1000");
+                        // Keyed by day within (user, type) so the expenses of one budget window,
+                        // all categories at once, are a single range scan
+                        stmt.execute("CREATE TABLE IF NOT EXISTS transaction_daily_rollups (" +
+                                "user_id INTEGER NOT NULL, " +
+                                "type TEXT NOT NULL, " +
+                                "day INTEGER NOT NULL, " +
+                                "category TEXT NOT NULL, " +
+                                "total INTEGER NOT NULL, " +
+                                "count INTEGER NOT NULL, " +
+                                "PRIMARY KEY (user_id, type, day, category)) WITHOUT ROWID");
+                        for (String sql : dailyRollupTriggers()) {
+                            stmt.execute(sql);
+                        }
+                    }
+                    rebuildDailyRollups(connection);
+                })
+                .add(9, "drop transaction indexes superseded by the rollups",
+                        // Totals and category spend read the rollups (migration 2), and type and
+                        // category pages use the (user_id, type|category, date, id) indexes of
+                        // migration 5; these only cost every write an index update
+                        "DROP INDEX IF EXISTS idx_transactions_user_type_date",
+                        "DROP INDEX IF EXISTS idx_transactions_user_category_type");
+    }
+
+    // Triggers that keep transactions_fts in step with every write to transactions
+    static String[] searchTriggers() {
+        String addNew = "INSERT INTO transactions_fts (rowid, description) VALUES (NEW.id, NEW.description);";
+        String removeOld = "INSERT INTO transactions_fts (transactions_fts, rowid, description) " +
+                "VALUES ('delete', OLD.id, OLD.description);";
+        return new String[]{
+                "DROP TRIGGER IF EXISTS trg_fts_insert",
+                "DROP TRIGGER IF EXISTS trg_fts_delete",
+                "DROP TRIGGER IF EXISTS trg_fts_update",
+                "CREATE TRIGGER trg_fts_insert AFTER INSERT ON transactions BEGIN " + addNew + " END",
+                "CREATE TRIGGER trg_fts_delete AFTER DELETE ON transactions BEGIN " + removeOld + " END",
+                "CREATE TRIGGER trg_fts_update AFTER UPDATE OF description ON transactions BEGIN " +
+                        removeOld + " " + addNew + " END"
+        };
+    }
+
+    // Month bucket of a transactions row; %s is the row alias (NEW or OLD)
+    private static final String ROLLUP_MONTH = "strftime('%%Y-%%m', %s.date / 1000, 'unixepoch')";
+    // Month bucket while dates were ISO text (before migration 3)
+    private static final String TEXT_DATE_MONTH = "strftime('%%Y-%%m', %s.date)";
+
+    // Epoch day of a transactions row, as LocalDate.toEpochDay() of its date
+    private static final String ROLLUP_DAY = "%s.date / 86400000";
+
+    // Triggers that keep transaction_rollups in step with every write to transactions,
+    // including bulk writes, inside the writer's own transaction
+    static String[] rollupTriggers(String monthExpression) {
+        return bucketTriggers("trg_rollup", "transaction_rollups", "month", monthExpression);
+    }
+
+    // The same for transaction_daily_rollups
+    static String[] dailyRollupTriggers() {
+        return bucketTriggers("trg_daily_rollup", "transaction_daily_rollups", "day", ROLLUP_DAY);
+    }
+
+    private static String[] bucketTriggers(String trigger, String table, String bucket, String bucketExpression) {
+        String newBucket = String.format(bucketExpression, "NEW");
+        String oldBucket = String.format(bucketExpression, "OLD");
+        String addNew = "INSERT INTO " + table + " (user_id, " + bucket + ", category, type, total, count) " +
+                "VALUES (NEW.user_id, " + newBucket + ", NEW.category, NEW.type, NEW.amount, 1) " +
+                "ON CONFLICT (user_id, " + bucket + ", category, type) DO UPDATE SET " +
+                "total = total + excluded.total, count = count + 1;";
+        String removeOld = "UPDATE " + table + " SET total = total - OLD.amount, count = count - 1 " +
+                "WHERE user_id = OLD.user_id AND " + bucket + " = " + oldBucket + " " +
+                "AND category = OLD.category AND type = OLD.type; " +
+                "DELETE FROM " + table + " WHERE user_id = OLD.user_id AND " + bucket + " = " + oldBucket + " " +
+                "AND category = OLD.category AND type = OLD.type AND count <= 0;";
+        return new String[]{
+                "DROP TRIGGER IF EXISTS " + trigger + "_insert",
+                "DROP TRIGGER IF EXISTS " + trigger + "_delete",
+                "DROP TRIGGER IF EXISTS " + trigger + "_update",
+                "CREATE TRIGGER " + trigger + "_insert AFTER INSERT ON transactions BEGIN " + addNew + " END",
+                "CREATE TRIGGER " + trigger + "_delete AFTER DELETE ON transactions BEGIN " + removeOld + " END",
+                "CREATE TRIGGER " + trigger + "_update AFTER UPDATE OF user_id, date, category, amount, type " +
+                        "ON transactions BEGIN " + removeOld + " " + addNew + " END"
+        };
+    }
+
+    private static String rollupSourceSql(String monthExpression) {
+        return "SELECT user_id, " + String.format(monthExpression, "transactions") + " AS month, " +
+                "category, type, SUM(amount), COUNT(*) " +
+                "FROM transactions GROUP BY user_id, month, category, type";
+    }
+
+    private static String dailyRollupSourceSql() {
+        return "SELECT user_id, " + String.format(ROLLUP_DAY, "transactions") + " AS day, " +
+                "category, type, SUM(amount), COUNT(*) " +
+                "FROM transactions GROUP BY user_id, day, category, type";
+    }
+
+    private static void rebuildRollups(Connection connection, String monthExpression) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("DELETE FROM transaction_rollups");
+            stmt.execute("INSERT INTO transaction_rollups (user_id, month, category, type, total, count) " +
+                    rollupSourceSql(monthExpression));
+        }
+    }
+
+    private static void rebuildDailyRollups(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("DELETE FROM transaction_daily_rollups");
+            stmt.execute("INSERT INTO transaction_daily_rollups (user_id, day, category, type, total, count) " +
+                    dailyRollupSourceSql());
+        }
+    }
+
+    // Recomputes every rollup row from the transactions table
+    public boolean rebuildRollups() {
+        try {
+            return write(statements -> {
+                connection.setAutoCommit(false);
+                try {
+                    rebuildRollups(connection, ROLLUP_MONTH);
+                    rebuildDailyRollups(connection);
+                    connection.commit();
+                    aggregates.invalidateAll();
+                    return true;
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw e;
+                } finally {
+                    connection.setAutoCommit(true);
+                }
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    // Re-tokenizes every description into transactions_fts
+    public boolean rebuildSearchIndex() {
+        try {
+            return write(statements -> {
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute("INSERT INTO transactions_fts (transactions_fts) VALUES ('rebuild')");
+                }
+                return true;
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    // Monthly and daily rollup rows that disagree with the transactions table; empty when they
+    // are in sync
+    public List<String> verifyRollups() {
+        List<String> mismatches = new ArrayList<>();
+        String columns = "user_id, %s, category, type, total, count";
+        String sql = "WITH expected (" + String.format(columns, "month") + ") AS (" +
+                rollupSourceSql(ROLLUP_MONTH) + "), " +
+                "expected_daily (" + String.format(columns, "day") + ") AS (" + dailyRollupSourceSql() + ") " +
+                "SELECT 'missing', * FROM (SELECT * FROM expected " +
+                "EXCEPT SELECT " + String.format(columns, "month") + " FROM transaction_rollups) " +
+                "UNION ALL " +
+                "SELECT 'unexpected', * FROM (SELECT " + String.format(columns, "month") + " FROM transaction_rollups " +
+                "EXCEPT SELECT * FROM expected) " +
+                "UNION ALL " +
+                "SELECT 'missing daily', * FROM (SELECT * FROM expected_daily " +
+                "EXCEPT SELECT " + String.format(columns, "day") + " FROM transaction_daily_rollups) " +
+                "UNION ALL " +
+                "SELECT 'unexpected daily', * FROM (SELECT " + String.format(columns, "day") +
+                " FROM transaction_daily_rollups EXCEPT SELECT * FROM expected_daily)";
+        try {
+            read(statements -> {
+                try (ResultSet rs = statements.prepare(sql).executeQuery()) {
+                    while (rs.next()) {
+                        mismatches.add(String.format("%s: user %d, %s, %s, %s, total %s, count %d",
+                                rs.getString(1), rs.getInt(2), rs.getString(3), rs.getString(4),
+                                rs.getString(5), rs.getString(6), rs.getInt(7)));
+                    }
+                }
+                return mismatches;
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+            mismatches.add("verification failed: " + e.getMessage());
+        }
+        return mismatches;
+    }
+
+    // Query plans of the statements behind every listing, aggregate, page and search method,
+    // keyed by SQL text with one detail line per plan step. The statements are gathered by
+    // running each method once with the read pool recording what it prepares; plans do not
+    // depend on bound values, and no user has id 0, so the reads themselves return nothing.
+    // Null when a statement could not be explained.
+    public Map<String, List<String>> explainQueries() {
+        Set<String> recorded = Collections.synchronizedSet(new LinkedHashSet<>());
+        aggregates.invalidateAll();
+        readPool.record(recorded);
+        try {
+            runEveryRead(0);
+        } finally {
+            readPool.record(null);
+        }
+        Map<String, List<String>> plans = new LinkedHashMap<>();
+        try {
+            return read(statements -> {
+                for (String sql : new ArrayList<>(recorded)) {
+                    try (PreparedStatement pstmt = statements.getConnection().prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+                        for (int index = 1; index <= pstmt.getParameterMetaData().getParameterCount(); index++) {
+                            pstmt.setNull(index, Types.NULL);
+                        }
+                        List<String> plan = new ArrayList<>();
+                        try (ResultSet rs = pstmt.executeQuery()) {
+                            while (rs.next()) {
+                                plan.add(rs.getString("detail"));
+                            }
+                        }
+                        plans.put(sql, plan);
+                    }
+                }
+                return plans;
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    // Each read method once, transaction pages under every filter kind and every header sort
+    private void runEveryRead(int userId) {
+        LocalDate today = LocalDate.now();
+        getTransactionById(userId);
+        getAllTransactions(userId);
+        getRecentTransactions(userId, 1);
+        searchTransactions(userId, "explain", 1);
+        getTransactionCount(userId);
+        TransactionQuery all = TransactionQuery.forUser(userId);
+        List<TransactionQuery> filters = Arrays.asList(all, all.withType("Expense"), all.withCategory("Other"),
+                all.withType("Expense").withCategory("Other"), all.withDateRange(today.minusMonths(1), today),
+                all.withText("explain"));
+        List<TransactionSort> sorts = new ArrayList<>();
+        sorts.add(TransactionSort.NEWEST_FIRST);
+        for (TransactionSort.Column column : Arrays.asList(TransactionSort.Column.DATE,
+                TransactionSort.Column.AMOUNT, TransactionSort.Column.CATEGORY, TransactionSort.Column.TYPE)) {
+            sorts.add(TransactionSort.NEWEST_FIRST.by(column));
+            sorts.add(TransactionSort.NEWEST_FIRST.by(column).by(column));
+        }
+        Transaction cursor = new Transaction(userId, userId, today.atStartOfDay(), "", "Other", 0, "Expense");
+        for (TransactionQuery filter : filters) {
+            getTransactionCount(filter);
+            for (TransactionSort sort : sorts) {
+                TransactionQuery query = filter.withSort(sort);
+                getTransactionPage(query, null, 1);
+                getTransactionPage(query, cursor, 1);
+                getTransactionAt(query, 0);
+                getTransactionAt(query, cursor, 0);
+            }
+        }
+        getAllBudgets(userId);
+        getBudgetStatus(userId, today);
+        loadAnalytics(userId);
+        getTotalIncome(userId);
+        getTotalExpenses(userId);
+        getSpentInCategory(userId, "Other");
+        getExpensesByCategory(userId);
+        getDashboardSummary(userId);
+        getMonthlyExpenses(userId);
+        getSpendingForecast(userId, YearMonth.now(), null);
+    }
+
+    public boolean createUser(String username, String passwordHash) {
+        String sql = "INSERT INTO users (username, password_hash) VALUES (?, ?)";
+        try {
+            return write(statements -> {
+                PreparedStatement pstmt = statements.prepare(sql);
+                pstmt.setString(1, username);
+                pstmt.setString(2, passwordHash);
+                pstmt.executeUpdate();
+                return true;
+            });
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    public User getUser(String username) {
+        String sql = "SELECT * FROM users WHERE username = ?";
+        try {
+            return read(statements -> {
+                PreparedStatement pstmt = statements.prepare(sql);
+                pstmt.setString(1, username);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        return new User(
+                                rs.getInt("id"),
+                                rs.getString("username"),
+                                rs.getString("password_hash")
+                        );
+                    }
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    private static void bindInsert(PreparedStatement pstmt, Transaction transaction) throws SQLException {
+        pstmt.setInt(1, transaction.getUserId());
+        pstmt.setLong(2, TransactionRowMapper.toEpochMillis(transaction.getDate()));
+        pstmt.setString(3, transaction.getDescription());
+        pstmt.setString(4, transaction.getCategory());
+        pstmt.setLong(5, transaction.getAmountMinor());
+        pstmt.setString(6, transaction.getType());
+    }
+
+    private static void bindUpdate(PreparedStatement pstmt, Transaction transaction) throws SQLException {
+        pstmt.setString(1, transaction.getDescription());
+        pstmt.setString(2, transaction.getCategory());
+        pstmt.setLong(3, transaction.getAmountMinor());
+        pstmt.setString(4, transaction.getType());
+        pstmt.setInt(5, transaction.getId());
+    }
+
+    public DataEventBus getEvents() {
+        return events;
+    }
+
+    public boolean addTransaction(Transaction transaction) {
+        try {
+            write(statements -> {
+                PreparedStatement pstmt = statements.prepare(INSERT_TRANSACTION_SQL);
+                bindInsert(pstmt, transaction);
+                pstmt.executeUpdate();
+                aggregates.invalidateUser(transaction.getUserId());
+                try (ResultSet rs = statements.prepare("SELECT last_insert_rowid()").executeQuery()) {
+                    rs.next();
+                    events.publish(new DataEvent.TransactionAdded(new Transaction(rs.getInt(1),
+                            transaction.getUserId(), transaction.getDate(), transaction.getDescription(),
+                            transaction.getCategory(), transaction.getAmountMinor(), transaction.getType())));
+                    return true;
+                }
+            });
+            return true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    public boolean updateTransaction(Transaction transaction) {
+        try {
+            return write(statements -> {
+                Transaction before = findTransaction(statements, transaction.getId());
+                if (before == null) {
+                    return false;
+                }
+                PreparedStatement pstmt = statements.prepare(UPDATE_TRANSACTION_SQL);
+                bindUpdate(pstmt, transaction);
+                pstmt.executeUpdate();
+                aggregates.invalidateUser(before.getUserId());
+                // The update leaves owner and date alone
+                events.publish(new DataEvent.TransactionUpdated(before, new Transaction(before.getId(),
+                        before.getUserId(), before.getDate(), transaction.getDescription(),
+                        transaction.getCategory(), transaction.getAmountMinor(), transaction.getType())));
+                return true;
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    public Transaction getTransactionById(int id) {
+        String sql = "SELECT " + TransactionRowMapper.COLUMNS + " FROM transactions WHERE id = ?";
+        try {
+            return read(statements -> {
+                PreparedStatement pstmt = statements.prepare(sql);
+                pstmt.setInt(1, id);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        return TransactionRowMapper.map(rs);
+                    }
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    public List<Transaction> getAllTransactions(int userId) {
+        List<Transaction> transactions = new ArrayList<>();
+        String sql = "SELECT " + TransactionRowMapper.COLUMNS + " FROM transactions WHERE user_id = ? ORDER BY date DESC";
+        try {
+            read(statements -> {
+                PreparedStatement pstmt = statements.prepare(sql);
+                pstmt.setInt(1, userId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        transactions.add(TransactionRowMapper.map(rs));
+                    }
+                }
+                return transactions;
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return transactions;
+    }
+
+    public List<Transaction> getRecentTransactions(int userId, int limit) {
+        List<Transaction> transactions = new ArrayList<>();
+        String sql = "SELECT " + TransactionRowMapper.COLUMNS + " FROM transactions WHERE user_id = ? ORDER BY date DESC, id DESC LIMIT ?";
+        try {
+            read(statements -> {
+                PreparedStatement pstmt = statements.prepare(sql);
+                pstmt.setInt(1, userId);
+                pstmt.setInt(2, limit);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        transactions.add(TransactionRowMapper.map(rs));
+                    }
+                }
+                return transactions;
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return transactions;
+    }
+
+    public List<Transaction> getTransactionPage(int userId, Transaction after, int limit) {
+        return getTransactionPage(TransactionQuery.forUser(userId), after, limit);
+    }
+
+    // Keyset pagination in the query's order: the page that follows the given row (or the first page)
+    public List<Transaction> getTransactionPage(TransactionQuery query, Transaction after, int limit) {
+        List<Transaction> transactions = new ArrayList<>();
+        try {
+            read(statements -> {
+                try (ResultSet rs = selectPage(statements, query, after, limit)) {
+                    while (rs.next()) {
+                        transactions.add(TransactionRowMapper.map(rs));
+                    }
+                }
+                return transactions;
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return transactions;
+    }
+
+    // The same page read straight into TransactionPage columns, without a Transaction per row;
+    // with a limit of the query's row count this is the whole result
+    public TransactionPage getTransactionColumns(TransactionQuery query, Transaction after, int limit) {
+        TransactionPage page = new TransactionPage(query.getUserId(), limit + 1);
+        try {
+            read(statements -> {
+                try (ResultSet rs = selectPage(statements, query, after, limit)) {
+                    while (rs.next()) {
+                        page.append(rs);
+                    }
+                }
+                return page;
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return page;
+    }
+
+    private static ResultSet selectPage(StatementCache statements, TransactionQuery query, Transaction after,
+                                        int limit) throws SQLException {
+        PreparedStatement pstmt = statements.prepare("SELECT " + TransactionRowMapper.COLUMNS + " FROM transactions " +
+                "WHERE " + query.where() + (after == null ? "" : " AND " + query.seek()) +
+                " ORDER BY " + query.orderBy() + " LIMIT ?");
+        int index = query.bind(pstmt, 1);
+        if (after != null) {
+            index = query.bindSeek(pstmt, index, after);
+        }
+        pstmt.setInt(index, limit);
+        return pstmt.executeQuery();
+    }
+
+    // Best matches first (bm25), newest first among equal ranks. Bare words match as prefixes
+    // and "quoted phrases" exactly; see FullTextQuery.
+    public List<Transaction> searchTransactions(int userId, String query, int limit) {
+        List<Transaction> transactions = new ArrayList<>();
+        FullTextQuery search = FullTextQuery.parse(query);
+        if (search == null) {
+            return transactions;
+        }
+        String sql = "SELECT " + TransactionRowMapper.COLUMNS + " FROM transactions " +
+                "JOIN (SELECT rowid AS match_id, rank FROM transactions_fts WHERE transactions_fts MATCH ?) " +
+                "ON id = match_id WHERE user_id = ? ORDER BY rank, date DESC, id DESC LIMIT ?";
+        try {
+            read(statements -> {
+                PreparedStatement pstmt = statements.prepare(sql);
+                pstmt.setString(1, search.toMatchExpression());
+                pstmt.setInt(2, userId);
+                pstmt.setInt(3, limit);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        transactions.add(TransactionRowMapper.map(rs));
+                    }
+                }
+                return transactions;
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return transactions;
+    }
+
+    public Transaction getTransactionAt(int userId, int offset) {
+        return getTransactionAt(TransactionQuery.forUser(userId), offset);
+    }
+
+    public Transaction getTransactionAt(TransactionQuery query, int offset) {
+        return getTransactionAt(query, null, offset);
+    }
+
+    // Row at the given position after a cursor row (or from the start) in the query's order,
+    // used to seed a keyset cursor. OFFSET reads every skipped row, so callers start from the
+    // nearest cursor they hold.
+    public Transaction getTransactionAt(TransactionQuery query, Transaction after, int offset) {
+        String sql = "SELECT " + TransactionRowMapper.COLUMNS + " FROM transactions " +
+                "WHERE " + query.where() + (after == null ? "" : " AND " + query.seek()) +
+                " ORDER BY " + query.orderBy() + " LIMIT 1 OFFSET ?";
+        try {
+            return read(statements -> {
+                PreparedStatement pstmt = statements.prepare(sql);
+                int index = query.bind(pstmt, 1);
+                if (after != null) {
+                    index = query.bindSeek(pstmt, index, after);
+                }
+                pstmt.setInt(index, offset);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        return TransactionRowMapper.map(rs);
+                    }
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    public boolean deleteTransaction(int transactionId) {
+        try {
+            return write(statements -> {
+                Transaction existing = findTransaction(statements, transactionId);
+                if (existing == null) {
+                    return false;
+                }
+                PreparedStatement pstmt = statements.prepare(DELETE_TRANSACTION_SQL);
+                pstmt.setInt(1, transactionId);
+                pstmt.executeUpdate();
+                aggregates.invalidateUser(existing.getUserId());
+                events.publish(new DataEvent.TransactionDeleted(existing));
+                return true;
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    // Reads the row as it stands before a write, on the writer's own connection
+    private static Transaction findTransaction(StatementCache statements, int transactionId) throws SQLException {
+        PreparedStatement pstmt = statements.prepare(
+                "SELECT " + TransactionRowMapper.COLUMNS + " FROM transactions WHERE id = ?");
+        pstmt.setInt(1, transactionId);
+        try (ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? TransactionRowMapper.map(rs) : null;
+        }
+    }
+
+    public void setBatchChunkSize(int batchChunkSize) {
+        if (batchChunkSize < 1) {
+            throw new IllegalArgumentException("Batch chunk size must be positive");
+        }
+        this.batchChunkSize = batchChunkSize;
+    }
+
+    public BatchResult addTransactions(Collection<Transaction> transactions) {
+        synchronized (writeLock) {
+            BatchResult result = executeBatch(INSERT_TRANSACTION_SQL, transactions, DatabaseManager::bindInsert);
+            invalidateBatchOwners(transactions);
+            return result;
+        }
+    }
+
+    public BatchResult updateTransactions(Collection<Transaction> transactions) {
+        synchronized (writeLock) {
+            BatchResult result = executeBatch(UPDATE_TRANSACTION_SQL, transactions, DatabaseManager::bindUpdate);
+            invalidateBatchOwners(transactions);
+            return result;
+        }
+    }
+
+    private void invalidateBatchOwners(Collection<Transaction> transactions) {
+        transactions.stream().map(Transaction::getUserId).distinct().forEach(userId -> {
+            aggregates.invalidateUser(userId);
+            events.publish(new DataEvent.TransactionsReloaded(userId));
+        });
+    }
+
+    public BatchResult deleteTransactions(Collection<Integer> transactionIds) {
+        synchronized (writeLock) {
+            BatchResult result = executeBatch(DELETE_TRANSACTION_SQL, transactionIds, (pstmt, id) -> pstmt.setInt(1, id));
+            // Owners are not known up front, so drop every user's aggregates
+            aggregates.invalidateAll();
+            events.publish(new DataEvent.TransactionsReloaded(DataEvent.TransactionsReloaded.ALL_USERS));
+            return result;
+        }
+    }
+
+    // Runs one JDBC batch per chunk inside a single transaction. A chunk that fails is
+    // rolled back to its savepoint and replayed row by row so only the bad rows are reported.
+    private <T> BatchResult executeBatch(String sql, Collection<T> rows, RowBinder<T> binder) {
+        BatchResult result = new BatchResult();
+        List<T> items = new ArrayList<>(rows);
+        if (items.isEmpty()) {
+            return result;
+        }
+
+        synchronized (writeLock) {
+            try {
+                connection.setAutoCommit(false);
+                PreparedStatement pstmt = statements.prepare(sql);
+                for (int start = 0; start < items.size(); start += batchChunkSize) {
+                    int end = Math.min(start + batchChunkSize, items.size());
+                    Savepoint savepoint = connection.setSavepoint();
+                    try {
+                        for (int i = start; i < end; i++) {
+                            binder.bind(pstmt, items.get(i));
+                            pstmt.addBatch();
+                        }
+                        int[] counts = pstmt.executeBatch();
+                        for (int i = 0; i < counts.length; i++) {
+                            recordRow(result, start + i, counts[i]);
+                        }
+                    } catch (SQLException e) {
+                        pstmt.clearBatch();
+                        connection.rollback(savepoint);
+                        for (int i = start; i < end; i++) {
+                            try {
+                                binder.bind(pstmt, items.get(i));
+                                recordRow(result, i, pstmt.executeUpdate());
+                            } catch (SQLException rowError) {
+                                result.recordFailure(i, rowError.getMessage());
+                            }
+                        }
+                    }
+                    connection.releaseSavepoint(savepoint);
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                e.printStackTrace();
+                try {
+                    connection.rollback();
+                } catch (SQLException rollbackError) {
+                    rollbackError.printStackTrace();
+                }
+                BatchResult failed = new BatchResult();
+                for (int i = 0; i < items.size(); i++) {
+                    failed.recordFailure(i, e.getMessage());
+                }
+                return failed;
+            } finally {
+                try {
+                    connection.setAutoCommit(true);
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void recordRow(BatchResult result, int index, int updateCount) {
+        if (updateCount == 0) {
+            result.recordFailure(index, "No matching transaction");
+        } else {
+            result.recordSuccess();
+        }
+    }
+
+    public boolean addBudget(Budget budget) {
+        String sql = "INSERT OR REPLACE INTO budgets (user_id, category, amount, period, start_date) " +
+                "VALUES (?, ?, ?, ?, ?)";
+        try {
+            write(statements -> {
+                PreparedStatement pstmt = statements.prepare(sql);
+                pstmt.setInt(1, budget.getUserId());
+                pstmt.setString(2, budget.getCategory());
+                pstmt.setLong(3, budget.getAmount().getMinorUnits());
+                pstmt.setString(4, budget.getPeriod().getLabel());
+                pstmt.setLong(5, TransactionRowMapper.toEpochMillis(budget.getStartDate().atStartOfDay()));
+                pstmt.executeUpdate();
+                aggregates.invalidateUser(budget.getUserId());
+                // Spend read on the writer, so no transaction write can land between it and the event
+                LocalDate today = LocalDate.now();
+                BudgetPeriod period = budget.getPeriod();
+                Map<String, Long> spent = loadWindowSpend(statements, budget.getUserId(),
+                        period.windowStart(budget.getStartDate(), today), period.windowEnd(budget.getStartDate(), today));
+                events.publish(new DataEvent.BudgetChanged(new BudgetStatus(budget, today,
+                        Money.ofMinor(spent.getOrDefault(budget.getCategory(), 0L)))));
+                return true;
+            });
+            return true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    public List<Budget> getAllBudgets(int userId) {
+        List<Budget> budgets = new ArrayList<>();
+        try {
+            read(statements -> loadBudgets(statements, userId, budgets));
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return budgets;
+    }
+
+    private static List<Budget> loadBudgets(StatementCache statements, int userId, List<Budget> budgets)
+            throws SQLException {
+        String sql = "SELECT id, user_id, category, amount, period, start_date FROM budgets " +
+                "WHERE user_id = ? ORDER BY id";
+        PreparedStatement pstmt = statements.prepare(sql);
+        pstmt.setInt(1, userId);
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                budgets.add(new Budget(
+                        rs.getInt("id"),
+                        rs.getInt("user_id"),
+                        rs.getString("category"),
+                        Money.ofMinor(rs.getLong("amount")),
+                        BudgetPeriod.of(rs.getString("period")),
+                        TransactionRowMapper.fromEpochMillis(rs.getLong("start_date")).toLocalDate()
+                ));
+            }
+        }
+        return budgets;
+    }
+
+    // Every budget with its category's spend in the window holding day. Budgets sharing a
+    // window, typically all the monthly ones, are summed together by one range scan over the
+    // daily rollups, so the cost follows the number of distinct windows, not of budgets.
+    public List<BudgetStatus> getBudgetStatus(int userId, LocalDate day) {
+        return aggregate(userId, "budgetStatus:" + day, statements -> {
+            List<BudgetStatus> statuses = new ArrayList<>();
+            Map<List<LocalDate>, Map<String, Long>> spentByWindow = new HashMap<>();
+            for (Budget budget : loadBudgets(statements, userId, new ArrayList<>())) {
+                LocalDate first = budget.getPeriod().windowStart(budget.getStartDate(), day);
+                LocalDate last = budget.getPeriod().windowEnd(budget.getStartDate(), day);
+                Map<String, Long> spent = spentByWindow.get(Arrays.asList(first, last));
+                if (spent == null) {
+                    spent = loadWindowSpend(statements, userId, first, last);
+                    spentByWindow.put(Arrays.asList(first, last), spent);
+                }
+                statuses.add(new BudgetStatus(budget, day,
+                        Money.ofMinor(spent.getOrDefault(budget.getCategory(), 0L))));
+            }
+            return Collections.unmodifiableList(statuses);
+        }, Collections.emptyList());
+    }
+
+    // An aggregate read through the cache. A failed read (e.g. SQLITE_BUSY past the timeout)
+    // returns the fallback without caching it, so the next call reads again instead of showing
+    // the fallback until the user's next write.
+    private <T> T aggregate(int userId, String name, SqlWork<T> work, T fallback) {
+        try {
+            return aggregates.get(userId, name, () -> read(work));
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return fallback;
+        }
+    }
+
+    // Expenses per category dated from first to last, inclusive
+    private static Map<String, Long> loadWindowSpend(StatementCache statements, int userId,
+                                                     LocalDate first, LocalDate last) throws SQLException {
+        String sql = "SELECT category, SUM(total) FROM transaction_daily_rollups " +
+                "WHERE user_id = ? AND type = 'Expense' AND day BETWEEN ? AND ? GROUP BY category";
+        Map<String, Long> spent = new HashMap<>();
+        PreparedStatement pstmt = statements.prepare(sql);
+        pstmt.setInt(1, userId);
+        pstmt.setLong(2, first.toEpochDay());
+        pstmt.setLong(3, last.toEpochDay());
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                spent.put(rs.getString(1), rs.getLong(2));
+            }
+        }
+        return spent;
+    }
+
+    // Every transaction of the user as analytics columns, read in one pass; null when the
+    // read failed, so callers keep to the aggregate queries
+    public AnalyticsEngine loadAnalytics(int userId) {
+        String sql = "SELECT id, date, category, amount, type FROM transactions WHERE user_id = ?";
+        try {
+            return read(statements -> {
+                AnalyticsEngine engine = new AnalyticsEngine(userId);
+                PreparedStatement pstmt = statements.prepare(sql);
+                pstmt.setInt(1, userId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        engine.put(rs.getInt(1), rs.getLong(2), rs.getString(3), rs.getLong(4), rs.getString(5));
+                    }
+                }
+                return engine;
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    public Money getTotalIncome(int userId) {
+        String sql = "SELECT SUM(total) FROM transaction_rollups WHERE user_id = ? AND type = 'Income'";
+        return aggregate(userId, "totalIncome", statements -> sum(statements, sql, userId), Money.ZERO);
+    }
+
+    public Money getTotalExpenses(int userId) {
+        String sql = "SELECT SUM(total) FROM transaction_rollups WHERE user_id = ? AND type = 'Expense'";
+        return aggregate(userId, "totalExpenses", statements -> sum(statements, sql, userId), Money.ZERO);
+    }
+
+    public int getTransactionCount(int userId) {
+        String sql = "SELECT SUM(count) FROM transaction_rollups WHERE user_id = ?";
+        return aggregate(userId, "transactionCount", statements -> {
+            PreparedStatement pstmt = statements.prepare(sql);
+            pstmt.setInt(1, userId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }, 0);
+    }
+
+    // Type/category filters are summed from the monthly rollups; date and text filters count
+    // index entries in the matching range
+    public int getTransactionCount(TransactionQuery query) {
+        if (query.isUnfiltered()) {
+            return getTransactionCount(query.getUserId());
+        }
+        String sql = query.isRollupCountable()
+                ? "SELECT SUM(count) FROM transaction_rollups WHERE " + query.rollupWhere()
+                : "SELECT COUNT(*) FROM transactions WHERE " + query.where();
+        try {
+            return read(statements -> {
+                PreparedStatement pstmt = statements.prepare(sql);
+                query.bind(pstmt, 1);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return rs.next() ? rs.getInt(1) : 0;
+                }
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    public Money getSpentInCategory(int userId, String category) {
+        String sql = "SELECT SUM(total) FROM transaction_rollups " +
+                "WHERE user_id = ? AND type = 'Expense' AND category = ?";
+        return aggregate(userId, "spent:" + category, statements -> {
+            PreparedStatement pstmt = statements.prepare(sql);
+            pstmt.setInt(1, userId);
+            pstmt.setString(2, category);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return Money.ofMinor(rs.next() ? rs.getLong(1) : 0);
+            }
+        }, Money.ZERO);
+    }
+
+    public Map<String, Money> getExpensesByCategory(int userId) {
+        String sql = "SELECT category, SUM(total) as total FROM transaction_rollups " +
+                "WHERE user_id = ? AND type = 'Expense' GROUP BY category";
+        return aggregate(userId, "expensesByCategory", statements -> {
+            Map<String, Money> categoryExpenses = new LinkedHashMap<>();
+            PreparedStatement pstmt = statements.prepare(sql);
+            pstmt.setInt(1, userId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    categoryExpenses.put(rs.getString("category"), Money.ofMinor(rs.getLong("total")));
+                }
+            }
+            return Collections.unmodifiableMap(categoryExpenses);
+        }, Collections.emptyMap());
+    }
+    // Income, expense, count and per-category spend in a single grouped pass over the rollups
+    public DashboardSummary getDashboardSummary(int userId) {
+        String sql = "SELECT category, type, SUM(total) AS total, SUM(count) AS count FROM transaction_rollups " +
+                "WHERE user_id = ? GROUP BY category, type";
+        return aggregate(userId, "dashboardSummary", statements -> {
+            PreparedStatement pstmt = statements.prepare(sql);
+            pstmt.setInt(1, userId);
+            long income = 0;
+            long expenses = 0;
+            int count = 0;
+            Map<String, Money> expensesByCategory = new LinkedHashMap<>();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    long total = rs.getLong("total");
+                    count += rs.getInt("count");
+                    if ("Income".equals(rs.getString("type"))) {
+                        income += total;
+                    } else if ("Expense".equals(rs.getString("type"))) {
+                        expenses += total;
+                        expensesByCategory.put(rs.getString("category"), Money.ofMinor(total));
+                    }
+                }
+            }
+            return new DashboardSummary(Money.ofMinor(income), Money.ofMinor(expenses), count,
+                    expensesByCategory);
+        }, new DashboardSummary(Money.ZERO, Money.ZERO, 0, Collections.emptyMap()));
+    }
+
+    public Map<String, Money> getMonthlyExpenses(int userId) {
+        String sql = "SELECT month, SUM(total) as total " +
+                "FROM transaction_rollups WHERE user_id = ? AND type = 'Expense' " +
+                "GROUP BY month ORDER BY month";
+        return aggregate(userId, "monthlyExpenses", statements -> {
+            Map<String, Money> monthlyExpenses = new LinkedHashMap<>();
+            PreparedStatement pstmt = statements.prepare(sql);
+            pstmt.setInt(1, userId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    monthlyExpenses.put(rs.getString("month"), Money.ofMinor(rs.getLong("total")));
+                }
+            }
+            return Collections.unmodifiableMap(monthlyExpenses);
+        }, Collections.emptyMap());
+    }
+
+    // Forecast from the completed months before month, cached until the user's next write;
+    // categories whose history did not change keep their fit from previous. Null on error.
+    public SpendingForecast getSpendingForecast(int userId, YearMonth month, SpendingForecast previous) {
+        try {
+            // Fitted after the read, so the pooled connection is not held while fitting
+            return aggregates.get(userId, "forecast:" + month, () -> SpendingForecast.fit(
+                    read(statements -> loadExpenseHistories(statements, userId, month)), month, previous));
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    // Expense totals per category over the SpendingForecast.HISTORY_MONTHS months before month
+    private static Map<String, long[]> loadExpenseHistories(StatementCache statements, int userId, YearMonth month)
+            throws SQLException {
+        YearMonth first = month.minusMonths(SpendingForecast.HISTORY_MONTHS);
+        String sql = "SELECT category, month, SUM(total) AS total FROM transaction_rollups " +
+                "WHERE user_id = ? AND month >= ? AND month < ? AND type = 'Expense' " +
+                "GROUP BY category, month";
+        PreparedStatement pstmt = statements.prepare(sql);
+        pstmt.setInt(1, userId);
+        pstmt.setString(2, first.toString());
+        pstmt.setString(3, month.toString());
+        Map<String, long[]> histories = new HashMap<>();
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                int index = (int) first.until(YearMonth.parse(rs.getString("month")), ChronoUnit.MONTHS);
+                histories.computeIfAbsent(rs.getString("category"),
+                        category -> new long[SpendingForecast.HISTORY_MONTHS])[index] = rs.getLong("total");
+            }
+        }
+        return histories;
+    }
+
+    private static Money sum(StatementCache statements, String sql, int userId) throws SQLException {
+        PreparedStatement pstmt = statements.prepare(sql);
+        pstmt.setInt(1, userId);
+        try (ResultSet rs = pstmt.executeQuery()) {
+            return Money.ofMinor(rs.next() ? rs.getLong(1) : 0);
+        }
+    }
+
+    // Aggregate cache statistics, for diagnostics
+    public long getAggregateCacheHits() {
+        return aggregates.getHitCount();
+    }
+
+    public long getAggregateCacheMisses() {
+        return aggregates.getMissCount();
+    }
+
+    public double getAggregateCacheHitRate() {
+        return aggregates.getHitRate();
+    }
+
+    // Prepared statement reuse counters across the writer and the read pool, for diagnostics
+    public long getStatementCacheHits() {
+        return statements.getHitCount() + readPool.getHitCount();
+    }
+
+    public long getStatementCacheMisses() {
+        return statements.getMissCount() + readPool.getMissCount();
+    }
+
+    public void close() {
+        if (readPool != null) {
+            readPool.close();
+        }
+        synchronized (writeLock) {
+            if (statements != null) {
+                statements.close();
+            }
+            try {
+                if (connection != null) {
+                    connection.close();
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.financemanager;
+
+import org.jfree.data.category.DefaultCategoryDataset;
+import org.jfree.data.general.AbstractDataset;
+import org.jfree.data.general.DefaultPieDataset;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+// Applies a set of changes to long-lived chart datasets with notifications held back, so each
+// dataset that actually changed fires one DatasetChangeEvent (one chart redraw) on close.
+// Writes that would not change a value are skipped and leave the dataset untouched.
+final class DatasetBatch implements AutoCloseable {
+    private final Set<AbstractDataset> held = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    public void setValue(DefaultCategoryDataset dataset, double value, String row, String column) {
+        if (dataset.getRowIndex(row) >= 0 && dataset.getColumnIndex(column) >= 0) {
+            Number current = dataset.getValue(row, column);
+            if (current != null && current.doubleValue() == value) {
+                return;
+            }
+        }
+        hold(dataset);
+        dataset.setValue(value, row, column);
+    }
+
+    public void removeColumn(DefaultCategoryDataset dataset, String column) {
+        if (dataset.getColumnIndex(column) >= 0) {
+            hold(dataset);
+            dataset.removeColumn(column);
+        }
+    }
+
+    public void setValue(DefaultPieDataset<String> dataset, String key, double value) {
+        if (dataset.getIndex(key) >= 0) {
+            Number current = dataset.getValue(key);
+            if (current != null && current.doubleValue() == value) {
+                return;
+            }
+        }
+        hold(dataset);
+        dataset.setValue(key, value);
+    }
+
+    public void remove(DefaultPieDataset<String> dataset, String key) {
+        if (dataset.getIndex(key) >= 0) {
+            hold(dataset);
+            dataset.remove(key);
+        }
+    }
+
+    // Makes a single-series pie match the given totals: drops missing keys, writes changed ones
+    public void sync(DefaultPieDataset<String> dataset, Map<String, Money> values) {
+        for (String key : new ArrayList<>(dataset.getKeys())) {
+            if (!values.containsKey(key)) {
+                remove(dataset, key);
+            }
+        }
+        values.forEach((key, amount) -> setValue(dataset, key, amount.toDouble()));
+    }
+
+    // Same for one row of a category dataset; new columns are appended in map order
+    @SuppressWarnings("unchecked")
+    public void sync(DefaultCategoryDataset dataset, String row, Map<String, Money> values) {
+        for (String column : new ArrayList<String>(dataset.getColumnKeys())) {
+            if (!values.containsKey(column)) {
+                removeColumn(dataset, column);
+            }
+        }
+        values.forEach((column, amount) -> setValue(dataset, amount.toDouble(), row, column));
+    }
+
+    // Refills a single-row dataset in map order, for when columns must move
+    public void replace(DefaultCategoryDataset dataset, String row, Map<String, Money> values) {
+        hold(dataset);
+        dataset.clear();
+        values.forEach((column, amount) -> dataset.addValue(amount.toDouble(), row, column));
+    }
+
+    private void hold(AbstractDataset dataset) {
+        if (held.add(dataset)) {
+            dataset.setNotify(false);
+        }
+    }
+
+    // Re-enabling notification fires the dataset's one change event
+    @Override
+    public void close() {
+        for (AbstractDataset dataset : held) {
+            dataset.setNotify(true);
+        }
+        held.clear();
+    }
+}
@@ -0,0 +1,284 @@
+package com.financemanager;
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+// Times every event the EDT dispatches. Latencies go into log2 buckets of microseconds, overall
+// and per action; when one event runs past the stall threshold, a watchdog thread samples the
+// EDT stack while it is still stuck. Code that starts a known expensive piece of UI work names
+// it with tag(), so its events and stalls are reported under that name instead of the raw event.
+// Enabled with -Dfinance.edt.stallMs=<threshold>; the report is written to finance.edt.report
+// (edt-report.txt by default) when the JVM exits.
+final class EdtMonitor extends EventQueue {
+    static final String STALL_MS_PROPERTY = "finance.edt.stallMs";
+    static final String REPORT_PROPERTY = "finance.edt.report";
+    private static final String DEFAULT_REPORT = "edt-report.txt";
+    private static final int BUCKETS = 32;
+    private static final int MAX_STALLS = 50;
+    private static final int MAX_STACK_DEPTH = 40;
+
+    private static volatile EdtMonitor installed;
+
+    // One event being dispatched. Modal dialogs dispatch nested events from inside an outer
+    // one; the outer event is then waiting on the user, not working, and is not timed.
+    private static final class Dispatch {
+        private final AWTEvent event;
+        private final long startedAt;
+        private volatile String action;
+        private volatile boolean nested;
+        private volatile StackTraceElement[] stack;
+
+        Dispatch(AWTEvent event, long startedAt) {
+            this.event = event;
+            this.startedAt = startedAt;
+        }
+    }
+
+    private static final class Stall {
+        private final String action;
+        private final String event;
+        private final long micros;
+        private final LocalDateTime at;
+        private final StackTraceElement[] stack;
+
+        Stall(String action, String event, long micros, StackTraceElement[] stack) {
+            this.action = action;
+            this.event = event;
+            this.micros = micros;
+            this.at = LocalDateTime.now();
+            this.stack = stack;
+        }
+    }
+
+    private static final class Histogram {
+        private final long[] counts = new long[BUCKETS];
+        private long events;
+        private long totalMicros;
+        private long maxMicros;
+        private int stalls;
+
+        void record(long micros, boolean stalled) {
+            counts[bucketOf(micros)]++;
+            events++;
+            totalMicros += micros;
+            maxMicros = Math.max(maxMicros, micros);
+            if (stalled) {
+                stalls++;
+            }
+        }
+
+        // Upper bound of the bucket holding the given fraction of events, capped at the maximum
+        long percentile(double fraction) {
+            long rank = (long) Math.ceil(events * fraction);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(upperBound(i), maxMicros);
+                }
+            }
+            return maxMicros;
+        }
+    }
+
+    private final long thresholdNanos;
+    private final Path reportFile;
+    private final Histogram overall = new Histogram();
+    private final Map<String, Histogram> byAction = new HashMap<>();
+    // Worst stalls kept, smallest on top so it is the one evicted
+    private final PriorityQueue<Stall> stalls = new PriorityQueue<>(Comparator.comparingLong(s -> s.micros));
+    private long stallCount;
+    private volatile Dispatch current;
+    private volatile Thread edt;
+
+    private EdtMonitor(long thresholdMillis, Path reportFile) {
+        this.thresholdNanos = thresholdMillis * 1_000_000;
+        this.reportFile = reportFile;
+    }
+
+    // Pushes the monitor onto the system event queue when finance.edt.stallMs is set
+    static void installIfEnabled() {
+        String threshold = System.getProperty(STALL_MS_PROPERTY);
+        if (threshold == null || installed != null) {
+            return;
+        }
+        long thresholdMillis;
+        try {
+            thresholdMillis = Long.parseLong(threshold.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Ignoring " + STALL_MS_PROPERTY + "=" + threshold + ": not a number of milliseconds");
+            return;
+        }
+        if (thresholdMillis < 1) {
+            System.err.println("Ignoring " + STALL_MS_PROPERTY + "=" + threshold + ": must be positive");
+            return;
+        }
+        EdtMonitor monitor = new EdtMonitor(thresholdMillis,
+                Paths.get(System.getProperty(REPORT_PROPERTY, DEFAULT_REPORT)));
+        installed = monitor;
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(monitor);
+        monitor.startWatchdog();
+        Runtime.getRuntime().addShutdownHook(new Thread(monitor::writeReport, "finance-edt-report"));
+    }
+
+    // Names the UI work the event now being dispatched performs. The first tag of an event wins;
+    // calls off the EDT or without a monitor do nothing.
+    static void tag(String action) {
+        EdtMonitor monitor = installed;
+        if (monitor == null || !EventQueue.isDispatchThread()) {
+            return;
+        }
+        Dispatch dispatch = monitor.current;
+        if (dispatch != null && dispatch.action == null) {
+            dispatch.action = action;
+        }
+    }
+
+    @Override
+    protected void dispatchEvent(AWTEvent event) {
+        Dispatch outer = current;
+        if (outer != null) {
+            outer.nested = true;
+        } else {
+            edt = Thread.currentThread();
+        }
+        Dispatch dispatch = new Dispatch(event, System.nanoTime());
+        current = dispatch;
+        try {
+            super.dispatchEvent(event);
+        } finally {
+            long elapsed = System.nanoTime() - dispatch.startedAt;
+            current = outer;
+            if (!dispatch.nested) {
+                record(dispatch, elapsed);
+            }
+        }
+    }
+
+    private synchronized void record(Dispatch dispatch, long elapsedNanos) {
+        long micros = elapsedNanos / 1_000;
+        boolean stalled = elapsedNanos >= thresholdNanos;
+        String name = dispatch.action != null ? dispatch.action : describe(dispatch.event);
+        overall.record(micros, stalled);
+        byAction.computeIfAbsent(name, k -> new Histogram()).record(micros, stalled);
+        if (stalled) {
+            stallCount++;
+            stalls.add(new Stall(name, describe(dispatch.event), micros, dispatch.stack));
+            if (stalls.size() > MAX_STALLS) {
+                stalls.poll();
+            }
+        }
+    }
+
+    // Samples the EDT stack once per event that is still running past the threshold
+    private void startWatchdog() {
+        long intervalMillis = Math.max(5, thresholdNanos / 4_000_000);
+        Thread watchdog = new Thread(() -> {
+            while (true) {
+                try {
+                    Thread.sleep(intervalMillis);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                Dispatch dispatch = current;
+                Thread thread = edt;
+                if (dispatch != null && thread != null && !dispatch.nested && dispatch.stack == null
+                        && System.nanoTime() - dispatch.startedAt >= thresholdNanos) {
+                    StackTraceElement[] stack = thread.getStackTrace();
+                    if (current == dispatch) {
+                        dispatch.stack = stack;
+                    }
+                }
+            }
+        }, "finance-edt-watchdog");
+        watchdog.setDaemon(true);
+        watchdog.start();
+    }
+
+    private static String describe(AWTEvent event) {
+        String source = event.getSource() == null ? "?" : event.getSource().getClass().getSimpleName();
+        return event.getClass().getSimpleName() + " from " + (source.isEmpty() ? "anonymous class" : source);
+    }
+
+    private static int bucketOf(long micros) {
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+    }
+
+    // Bucket i holds latencies below 2^i microseconds
+    private static long upperBound(int bucket) {
+        return 1L << bucket;
+    }
+
+    private synchronized void writeReport() {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8))) {
+            out.printf("EDT dispatch report, %s, stall threshold %d ms%n%n",
+                    LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME), thresholdNanos / 1_000_000);
+            out.printf("%d events, %d stalls (%d kept below), max %s%n%n",
+                    overall.events, stallCount, stalls.size(), millis(overall.maxMicros));
+
+            out.println("Latency histogram (all events):");
+            for (int i = 0; i < BUCKETS; i++) {
+                if (overall.counts[i] > 0) {
+                    out.printf("  < %10d us  %8d%n", upperBound(i), overall.counts[i]);
+                }
+            }
+
+            out.println();
+            out.println("By action, worst total time first:");
+            out.printf("  %-48s %8s %8s %10s %10s %10s %10s%n",
+                    "action", "events", "stalls", "total", "p50 <", "p99 <", "max");
+            List<Map.Entry<String, Histogram>> actions = new ArrayList<>(byAction.entrySet());
+            actions.sort(Comparator.comparingLong((Map.Entry<String, Histogram> e) -> e.getValue().totalMicros)
+                    .reversed());
+            for (Map.Entry<String, Histogram> entry : actions) {
+                Histogram h = entry.getValue();
+                out.printf("  %-48s %8d %8d %10s %10s %10s %10s%n", entry.getKey(), h.events, h.stalls,
+                        millis(h.totalMicros), millis(h.percentile(0.5)), millis(h.percentile(0.99)),
+                        millis(h.maxMicros));
+            }
+
+            List<Stall> worst = new ArrayList<>(stalls);
+            worst.sort(Comparator.comparingLong((Stall s) -> s.micros).reversed());
+            for (Stall stall : worst) {
+                out.println();
+                out.printf("Stall %s in %s at %s%n", millis(stall.micros), stall.action.equals(stall.event)
+                                ? stall.action : stall.action + " (" + stall.event + ")",
+                        stall.at.format(DateTimeFormatter.ISO_LOCAL_TIME));
+                if (stall.stack == null) {
+                    out.println("  (finished before the watchdog sampled it)");
+                    continue;
+                }
+                int depth = Math.min(stall.stack.length, MAX_STACK_DEPTH);
+                for (int i = 0; i < depth; i++) {
+                    out.println("  at " + stall.stack[i]);
+                }
+                if (stall.stack.length > depth) {
+                    out.printf("  ... %d more%n", stall.stack.length - depth);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        System.out.println("EDT report written to " + reportFile.toAbsolutePath());
+    }
+
+    private static String millis(long micros) {
+        return String.format("%.1f ms", micros / 1000.0);
+    }
+}
@@ -0,0 +1,34 @@
+package com.financemanager;
+
+import javax.swing.JLabel;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.function.LongFunction;
+
+// Centered renderer for raw long cells (epoch-millisecond dates, minor-unit amounts) that
+// formats only when a visible cell is painted, with one shared formatter per column
+@SuppressWarnings("serial") // Never serialized
+class FormattedCellRenderer extends DefaultTableCellRenderer {
+    private final LongFunction<String> formatter;
+
+    private FormattedCellRenderer(LongFunction<String> formatter) {
+        this.formatter = formatter;
+        setHorizontalAlignment(JLabel.CENTER);
+    }
+
+    static FormattedCellRenderer money() {
+        return new FormattedCellRenderer(Money::format);
+    }
+
+    static FormattedCellRenderer epochDate(String pattern) {
+        DateTimeFormatter format = DateTimeFormatter.ofPattern(pattern).withZone(ZoneOffset.UTC);
+        return new FormattedCellRenderer(millis -> format.format(Instant.ofEpochMilli(millis)));
+    }
+
+    @Override
+    protected void setValue(Object value) {
+        setText(value instanceof Number ? formatter.apply(((Number) value).longValue()) : "");
+    }
+}
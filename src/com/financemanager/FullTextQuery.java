@@ -0,0 +1,132 @@
+package com.financemanager;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+// Search box text as an FTS5 MATCH expression: bare words match as prefixes, "quoted phrases"
+// match exactly, and every term must be present. matches() applies the same rule to a single
+// description, splitting and folding it the way the unicode61 tokenizer does.
+// A one-letter word matches whole tokens only, since as a prefix it would match most rows.
+final class FullTextQuery {
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private static final class Term {
+        private final List<String> tokens;
+        private final boolean prefix;
+
+        private Term(List<String> tokens, boolean prefix) {
+            this.tokens = tokens;
+            this.prefix = prefix;
+        }
+    }
+
+    private final String text;
+    private final List<Term> terms;
+
+    private FullTextQuery(String text, List<Term> terms) {
+        this.text = text;
+        this.terms = terms;
+    }
+
+    // Null when the text holds nothing searchable
+    static FullTextQuery parse(String text) {
+        if (text == null) {
+            return null;
+        }
+        List<Term> terms = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            boolean end = i == text.length();
+            if (c == '"' || end || (!quoted && Character.isWhitespace(c))) {
+                List<String> tokens = tokenize(word.toString());
+                if (!tokens.isEmpty()) {
+                    String last = tokens.get(tokens.size() - 1);
+                    terms.add(new Term(tokens, !quoted && last.length() >= MIN_PREFIX_LENGTH));
+                }
+                word.setLength(0);
+                if (c == '"') {
+                    quoted = !quoted;
+                }
+            } else {
+                word.append(c);
+            }
+        }
+        return terms.isEmpty() ? null : new FullTextQuery(text.trim(), terms);
+    }
+
+    // Lower-cased, accent-free runs of letters and digits
+    static List<String> tokenize(String text) {
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens.isEmpty() ? Collections.emptyList() : tokens;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    // Tokens are letters and digits only, so they never need quoting inside the phrase
+    public String toMatchExpression() {
+        StringBuilder expression = new StringBuilder();
+        for (Term term : terms) {
+            if (expression.length() > 0) {
+                expression.append(' ');
+            }
+            expression.append('"').append(String.join(" ", term.tokens)).append('"');
+            if (term.prefix) {
+                expression.append('*');
+            }
+        }
+        return expression.toString();
+    }
+
+    public boolean matches(String description) {
+        List<String> tokens = tokenize(description);
+        for (Term term : terms) {
+            if (!contains(tokens, term)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean contains(List<String> tokens, Term term) {
+        int length = term.tokens.size();
+        for (int start = 0; start + length <= tokens.size(); start++) {
+            boolean found = true;
+            for (int i = 0; i < length && found; i++) {
+                String token = tokens.get(start + i);
+                String wanted = term.tokens.get(i);
+                found = term.prefix && i == length - 1 ? token.startsWith(wanted) : token.equals(wanted);
+            }
+            if (found) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof FullTextQuery && toMatchExpression().equals(((FullTextQuery) o).toMatchExpression());
+    }
+
+    @Override
+    public int hashCode() {
+        return toMatchExpression().hashCode();
+    }
+}
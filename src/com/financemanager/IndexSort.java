@@ -0,0 +1,52 @@
+package com.financemanager;
+
+// Merge sort of an int[] of row indexes by a primitive comparator, for sorting columnar data
+// without boxing each index into an Integer for Arrays.sort
+final class IndexSort {
+    interface Comparator {
+        int compare(int a, int b);
+    }
+
+    private static final int INSERTION_SORT_MAX = 24;
+
+    private IndexSort() {
+    }
+
+    public static void sort(int[] indexes, Comparator comparator) {
+        int[] buffer = indexes.clone();
+        mergeSort(buffer, indexes, 0, indexes.length, comparator);
+    }
+
+    // Sorts source[from, to) into target[from, to); both start with the same contents
+    private static void mergeSort(int[] source, int[] target, int from, int to, Comparator comparator) {
+        if (to - from <= INSERTION_SORT_MAX) {
+            for (int i = from + 1; i < to; i++) {
+                int value = target[i];
+                int j = i - 1;
+                while (j >= from && comparator.compare(target[j], value) > 0) {
+                    target[j + 1] = target[j];
+                    j--;
+                }
+                target[j + 1] = value;
+            }
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        // Halves are sorted into source, then merged from it into target
+        mergeSort(target, source, from, middle, comparator);
+        mergeSort(target, source, middle, to, comparator);
+        if (comparator.compare(source[middle - 1], source[middle]) <= 0) {
+            System.arraycopy(source, from, target, from, to - from);
+            return;
+        }
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < middle && comparator.compare(source[left], source[right]) <= 0)) {
+                target[i] = source[left++];
+            } else {
+                target[i] = source[right++];
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.financemanager;
+
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// One user's totals, seeded from a snapshot and then kept current from DataEvents on the EDT,
+// so panels can redraw just the values an event touched instead of querying everything again
+class LiveSummary {
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    // What one batch of events changed
+    static class Delta {
+        private final Set<String> categories = new HashSet<>();
+        private final Set<String> months = new HashSet<>();
+        private final Set<String> budgetCategories = new HashSet<>();
+        private boolean totalsChanged;
+        private boolean reloadRequired;
+
+        // Expense categories whose total moved
+        public Set<String> getCategories() {
+            return categories;
+        }
+
+        public Set<String> getMonths() {
+            return months;
+        }
+
+        public Set<String> getBudgetCategories() {
+            return budgetCategories;
+        }
+
+        public boolean isTotalsChanged() {
+            return totalsChanged;
+        }
+
+        public boolean isReloadRequired() {
+            return reloadRequired;
+        }
+    }
+
+    private final int userId;
+    private long income;
+    private long expenses;
+    private int transactionCount;
+    private final Map<String, Long> expensesByCategory = new LinkedHashMap<>();
+    private final TreeMap<String, Long> monthlyExpenses = new TreeMap<>();
+    private final BudgetTracker budgets;
+
+    public LiveSummary(int userId, AsyncDataService.Snapshot snapshot) {
+        this.userId = userId;
+        DashboardSummary summary = snapshot.getSummary();
+        income = summary.getTotalIncome().getMinorUnits();
+        expenses = summary.getTotalExpenses().getMinorUnits();
+        transactionCount = summary.getTransactionCount();
+        summary.getExpensesByCategory().forEach((category, amount) ->
+                expensesByCategory.put(category, amount.getMinorUnits()));
+        snapshot.getMonthlyExpenses().forEach((month, amount) ->
+                monthlyExpenses.put(month, amount.getMinorUnits()));
+        budgets = new BudgetTracker(snapshot.getBudgets());
+    }
+
+    public Delta apply(List<DataEvent> events) {
+        Delta delta = new Delta();
+        for (DataEvent event : events) {
+            if (event instanceof DataEvent.TransactionsReloaded) {
+                if (((DataEvent.TransactionsReloaded) event).affects(userId)) {
+                    delta.reloadRequired = true;
+                }
+                continue;
+            }
+            if (event.getUserId() != userId) {
+                continue;
+            }
+            if (event instanceof DataEvent.TransactionAdded) {
+                add(((DataEvent.TransactionAdded) event).getTransaction(), 1, delta);
+            } else if (event instanceof DataEvent.TransactionUpdated) {
+                DataEvent.TransactionUpdated updated = (DataEvent.TransactionUpdated) event;
+                add(updated.getBefore(), -1, delta);
+                add(updated.getAfter(), 1, delta);
+            } else if (event instanceof DataEvent.TransactionDeleted) {
+                add(((DataEvent.TransactionDeleted) event).getTransaction(), -1, delta);
+            } else if (event instanceof DataEvent.BudgetChanged) {
+                BudgetStatus status = ((DataEvent.BudgetChanged) event).getStatus();
+                budgets.setBudget(status);
+                delta.budgetCategories.add(status.getCategory());
+                delta.totalsChanged = true;
+            }
+        }
+        return delta;
+    }
+
+    private void add(Transaction t, int sign, Delta delta) {
+        long amount = sign * t.getAmountMinor();
+        transactionCount += sign;
+        delta.totalsChanged = true;
+        if ("Income".equals(t.getType())) {
+            income += amount;
+        } else if ("Expense".equals(t.getType())) {
+            expenses += amount;
+            addTo(expensesByCategory, t.getCategory(), amount);
+            addTo(monthlyExpenses, t.getDate().format(MONTH_FORMAT), amount);
+            budgets.addSpent(t.getCategory(), t.getDate().toLocalDate(), amount);
+            delta.categories.add(t.getCategory());
+            delta.months.add(t.getDate().format(MONTH_FORMAT));
+        }
+    }
+
+    // A bucket that drops back to zero is removed, as the grouped queries would omit it
+    private static void addTo(Map<String, Long> buckets, String key, long amount) {
+        long total = buckets.getOrDefault(key, 0L) + amount;
+        if (total == 0) {
+            buckets.remove(key);
+        } else {
+            buckets.put(key, total);
+        }
+    }
+
+    public Money getTotalIncome() {
+        return Money.ofMinor(income);
+    }
+
+    public Money getTotalExpenses() {
+        return Money.ofMinor(expenses);
+    }
+
+    public Money getBalance() {
+        return Money.ofMinor(income - expenses);
+    }
+
+    public int getTransactionCount() {
+        return transactionCount;
+    }
+
+    public Money getTotalBudget() {
+        return budgets.getTotalBudget();
+    }
+
+    public Map<String, Money> getExpensesByCategory() {
+        Map<String, Money> categories = new LinkedHashMap<>();
+        expensesByCategory.forEach((category, total) -> categories.put(category, Money.ofMinor(total)));
+        return categories;
+    }
+
+    public Money getSpentInCategory(String category) {
+        return Money.ofMinor(expensesByCategory.getOrDefault(category, 0L));
+    }
+
+    // Null once a month has no expenses left
+    public Money getMonthExpenses(String month) {
+        Long total = monthlyExpenses.get(month);
+        return total == null ? null : Money.ofMinor(total);
+    }
+
+    public Map<String, Money> getMonthlyExpenses() {
+        Map<String, Money> months = new LinkedHashMap<>();
+        monthlyExpenses.forEach((month, total) -> months.put(month, Money.ofMinor(total)));
+        return months;
+    }
+
+    public String getLastMonth() {
+        return monthlyExpenses.isEmpty() ? null : monthlyExpenses.lastKey();
+    }
+
+    public BudgetTracker getBudgets() {
+        return budgets;
+    }
+}
@@ -0,0 +1,102 @@
+package com.financemanager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Immutable amount in minor units (hundredths of a FCFA), stored and summed as a long
+final class Money implements Comparable<Money> {
+    static final Money ZERO = new Money(0);
+    private static final int SCALE = 2;
+    private static final String CURRENCY_SUFFIX = " FCFA";
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    // Parses user input such as "1250" or "1250.5"; throws NumberFormatException when invalid
+    public static Money parse(String text) {
+        try {
+            return ofMinor(new BigDecimal(text.trim())
+                    .setScale(SCALE, RoundingMode.HALF_UP)
+                    .unscaledValue()
+                    .longValueExact());
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount out of range: " + text);
+        }
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public Money plus(Money other) {
+        return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return ofMinor(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    // For chart datasets, which only take doubles
+    public double toDouble() {
+        return minorUnits / 100.0;
+    }
+
+    // "1234.50"
+    public String toPlainString() {
+        return toPlainString(minorUnits);
+    }
+
+    // "1234.50 FCFA"
+    public String format() {
+        return format(minorUnits);
+    }
+
+    static String format(long minorUnits) {
+        return toPlainString(minorUnits) + CURRENCY_SUFFIX;
+    }
+
+    static String toPlainString(long minorUnits) {
+        StringBuilder sb = new StringBuilder(24);
+        if (minorUnits < 0) {
+            sb.append('-');
+        }
+        long whole = Math.abs(minorUnits / 100);
+        long cents = Math.abs(minorUnits % 100);
+        sb.append(whole).append('.');
+        if (cents < 10) {
+            sb.append('0');
+        }
+        return sb.append(cents).toString();
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money && ((Money) o).minorUnits == minorUnits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toPlainString();
+    }
+}
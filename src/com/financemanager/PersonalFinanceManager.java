@@ -3,25 +3,25 @@ package com.financemanager;
 import javax.swing.Timer;
 import javax.swing.*;
 import javax.swing.border.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.awt.geom.*;
 import java.awt.image.BufferedImage;
-import java.sql.*;
 import java.time.*;
 import java.time.format.*;
 import java.util.*;
 import java.util.List;
-import java.security.*;
+import java.util.concurrent.CompletableFuture;
 import org.jfree.chart.*;
 import org.jfree.chart.plot.*;
+import org.jfree.chart.renderer.category.LineAndShapeRenderer;
 import org.jfree.data.category.*;
 import org.jfree.data.general.*;
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 
+@SuppressWarnings("serial") // Never serialized
 public class PersonalFinanceManager extends JFrame {
     // Modern Color Palette
     private static final Color PRIMARY_COLOR = new Color(30, 136, 229);
@@ -37,6 +37,10 @@ public class PersonalFinanceManager extends JFrame {
     private static final Color TEXT_SECONDARY = new Color(117, 117, 117);
     private static final Color DIVIDER_COLOR = new Color(224, 224, 224);
 
+    // Painted once, in the background from the moment the class is first used at launch
+    private static final CompletableFuture<Image> APP_ICON =
+            CompletableFuture.supplyAsync(PersonalFinanceManager::createAppIcon);
+
     // UI Components
     private JPanel mainPanel;
     private JPanel contentPanel;
@@ -44,24 +48,96 @@ public class PersonalFinanceManager extends JFrame {
     private JLabel currentPageLabel;
     private DatabaseManager dbManager;
     private AuthenticationManager authManager;
+    private AsyncDataService dataService;
+    private final CompletableFuture<AsyncDataService> services;
     private User currentUser;
+    private TransactionTableModel transactionTableModel;
+    private LiveSummary liveSummary;
+    private final DataEventBus.Listener panelUpdater = this::applyEvents;
+
+    // Cards are built the first time they are shown; the likely next one is warmed up
+    // shortly after the dashboard has painted
+    private static final String[] DATA_CARDS = {"Dashboard", "Budget", "Analytics"};
+    private static final String WARM_UP_CARD = "Transactions";
+    private static final int WARM_UP_DELAY_MS = 500;
+    private static final int SEARCH_DEBOUNCE_MS = 250;
+    private static final int BUDGET_ROLLOVER_CHECK_MS = 60_000;
+    // Beyond this many buckets the trends axis drops its labels, which would overlap
+    private static final int MAX_LABELLED_BUCKETS = 60;
+    private final Map<String, JComponent> cards = new HashMap<>();
+    private long loginStartedAt;
+    private Timer budgetRollover;
+
+    // Views updated in place from data events
+    private final Map<String, JLabel> summaryValueLabels = new HashMap<>();
+    private final Map<String, JLabel> summaryIconLabels = new HashMap<>();
+    private DefaultPieDataset<String> expensePieDataset;
+    private DefaultTableModel recentTransactionsModel;
+    private final List<Transaction> recentTransactions = new ArrayList<>();
+    private BudgetTableModel budgetTableModel;
+    private JProgressBar budgetProgressBar;
+    private JLabel totalBudgetLabel;
+    private JLabel totalSpentLabel;
+    private JLabel budgetRemainingLabel;
+    private DefaultCategoryDataset budgetDataset;
+    private DefaultCategoryDataset expenseDataset;
+    private DefaultCategoryDataset comparisonDataset;
+    private DefaultCategoryDataset trendsDataset;
+    private CategoryPlot trendsPlot;
+    private JComboBox<String> analyticsRangeCombo;
+    private AnalyticsRange analyticsRange = AnalyticsRange.ALL_TIME;
+    private JComboBox<String> trendsGranularityCombo;
+    private JComboBox<String> trendsCategoryCombo;
+    private TimeSeries.Granularity trendsGranularity = TimeSeries.Granularity.MONTH;
+    // Null for all categories
+    private String trendsCategory;
+    // Loaded on the first visit to Analytics; events arriving while it loads wait in
+    // analyticsPending, which is null when no load is running
+    private AnalyticsEngine analytics;
+    private List<DataEvent> analyticsPending;
+    // Fitted in the background once Analytics is built and again after writes to completed
+    // months; a write during a fit sets forecastStale so one more follows it
+    private DefaultCategoryDataset forecastDataset;
+    private SpendingForecast forecast;
+    private boolean forecastLoading;
+    private boolean forecastStale;
 
     public static void main(String[] args) {
+        launch();
+    }
+
+    // The database opens on its own thread while Swing starts and the login screen is built
+    public static void launch() {
+        long started = StartupTimer.start();
+        EdtMonitor.installIfEnabled();
+        CompletableFuture<DatabaseManager> database = DatabaseManager.openAsync();
         SwingUtilities.invokeLater(() -> {
-            PersonalFinanceManager app = new PersonalFinanceManager();
+            StartupTimer.record("awt startup", started);
+            PersonalFinanceManager app = new PersonalFinanceManager(database);
             app.setVisible(true);
+            SwingUtilities.invokeLater(() -> StartupTimer.milestone("login screen shown"));
         });
     }
 
     public PersonalFinanceManager() {
-        initializeDatabase();
+        this(DatabaseManager.openAsync());
+    }
+
+    // The login screen is usable before the database is open; login and signup wait for it
+    PersonalFinanceManager(CompletableFuture<DatabaseManager> database) {
+        services = database.thenApply(this::initializeServices);
         initializeUI();
         showLoginScreen();
     }
 
-    private void initializeDatabase() {
-        dbManager = new DatabaseManager();
-        authManager = new AuthenticationManager(dbManager);
+    // Runs on the thread that opened the database; the fields are read on the EDT only after
+    // services has completed
+    private AsyncDataService initializeServices(DatabaseManager database) {
+        dbManager = database;
+        authManager = new AuthenticationManager(database);
+        dataService = new AsyncDataService(database, authManager);
+        StartupTimer.milestone("database ready");
+        return dataService;
     }
 
     private void initializeUI() {
@@ -69,21 +145,34 @@ public class PersonalFinanceManager extends JFrame {
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setSize(1280, 800);
         setLocationRelativeTo(null);
-        setIconImage(createAppIcon());
+        setIconImage(APP_ICON.join());
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                // Nothing to close when the window goes away before the database has opened
+                services.thenAccept(service -> {
+                    service.shutdown();
+                    dbManager.close();
+                });
+            }
+        });
 
         // Set modern look and feel
+        long started = StartupTimer.start();
         try {
             UIManager.setLookAndFeel("javax.swing.plaf.nimbus.NimbusLookAndFeel");
         } catch (Exception e) {
             e.printStackTrace();
         }
+        StartupTimer.record("look and feel", started);
 
         mainPanel = new JPanel(new BorderLayout());
         mainPanel.setBackground(BACKGROUND);
         setContentPane(mainPanel);
     }
 
-    private Image createAppIcon() {
+    private static Image createAppIcon() {
+        long started = StartupTimer.start();
         BufferedImage image = new BufferedImage(64, 64, BufferedImage.TYPE_INT_ARGB);
         Graphics2D g2d = image.createGraphics();
 
@@ -102,11 +191,14 @@ public class PersonalFinanceManager extends JFrame {
         g2d.drawString(dollar, x, y);
 
         g2d.dispose();
+        StartupTimer.record("app icon", started);
         return image;
     }
 
     private void showLoginScreen() {
+        long started = StartupTimer.start();
         LoginPanel loginPanel = new LoginPanel();
+        StartupTimer.record("login screen", started);
         animateTransition(() -> {
             mainPanel.removeAll();
             mainPanel.add(loginPanel, BorderLayout.CENTER);
@@ -129,20 +221,531 @@ public class PersonalFinanceManager extends JFrame {
         contentPanel.setBackground(BACKGROUND);
         contentPanel.setBorder(new EmptyBorder(20, 20, 20, 20));
 
-        // Add panels
-        contentPanel.add(createDashboardPanel(), "Dashboard");
-        contentPanel.add(createTransactionsPanel(), "Transactions");
-        contentPanel.add(createBudgetPanel(), "Budget");
-        contentPanel.add(createAnalyticsPanel(), "Analytics");
-        contentPanel.add(createGoalsPanel(), "Goals");
-
+        clearViews();
         mainPanel.add(contentPanel, BorderLayout.CENTER);
 
-        // Show dashboard by default
-        cardLayout.show(contentPanel, "Dashboard");
-        currentPageLabel.setText("Dashboard");
+        // Show dashboard by default; other cards are built on first navigation
+        showCard("Dashboard");
 
         mainPanel.revalidate();
+
+        dbManager.getEvents().subscribe(panelUpdater);
+        reloadSummaryPanels();
+        budgetRollover = new Timer(BUDGET_ROLLOVER_CHECK_MS, e -> {
+            advanceBudgetWindows();
+            if (forecast != null && !forecast.getMonth().equals(YearMonth.now())) {
+                loadForecast();
+            }
+        });
+        budgetRollover.start();
+    }
+
+    // Loads a fresh snapshot: the first one replaces the data cards' placeholders, later ones
+    // are diffed into the existing charts and tables
+    private void reloadSummaryPanels() {
+        User user = currentUser;
+        AsyncDataService.onEdt(dataService.loadSnapshot(user.getId()), snapshot -> {
+            EdtMonitor.tag("reload summary panels");
+            if (currentUser != user) {
+                return; // Logged out while loading
+            }
+            boolean firstLoad = liveSummary == null;
+            liveSummary = new LiveSummary(user.getId(), snapshot);
+            recentTransactions.clear();
+            recentTransactions.addAll(snapshot.getRecentTransactions());
+            if (firstLoad) {
+                for (String name : DATA_CARDS) {
+                    if (cards.containsKey(name)) {
+                        replaceCard(name);
+                    }
+                }
+            } else {
+                refreshViews();
+            }
+            if (loginStartedAt != 0) {
+                reportFirstFrame();
+            }
+        });
+    }
+
+    // Moves budget windows once the date has passed their end; only the budgets whose window
+    // moved are summed again, from the daily rollups of the new window
+    private void advanceBudgetWindows() {
+        LiveSummary summary = liveSummary;
+        if (summary == null) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        Set<String> moved = summary.getBudgets().advanceTo(today);
+        if (moved.isEmpty()) {
+            return;
+        }
+        AsyncDataService.onEdt(dataService.getBudgetStatus(currentUser.getId(), today), statuses -> {
+            if (liveSummary != summary) {
+                return; // Reloaded or logged out while loading
+            }
+            for (BudgetStatus status : statuses) {
+                if (moved.contains(status.getCategory())) {
+                    summary.getBudgets().setBudget(status);
+                }
+            }
+            updateBudgetStatus();
+            try (DatasetBatch batch = new DatasetBatch()) {
+                for (String category : moved) {
+                    updateBudgetRow(category, batch);
+                }
+            }
+        });
+    }
+
+    private void showCard(String name) {
+        ensureCard(name);
+        cardLayout.show(contentPanel, name);
+        currentPageLabel.setText(name);
+    }
+
+    private void ensureCard(String name) {
+        if (!cards.containsKey(name)) {
+            JComponent card = buildCard(name);
+            cards.put(name, card);
+            contentPanel.add(card, name);
+        }
+    }
+
+    // Data-backed cards are a placeholder until the first snapshot has loaded
+    private JComponent buildCard(String name) {
+        switch (name) {
+            case "Transactions": return createTransactionsPanel();
+            case "Goals": return createGoalsPanel();
+            case "Dashboard": return liveSummary == null ? createLoadingPanel() : createDashboardPanel();
+            case "Budget": return liveSummary == null ? createLoadingPanel() : createBudgetPanel();
+            default: return liveSummary == null ? createLoadingPanel() : createAnalyticsPanel();
+        }
+    }
+
+    // Forgets the views of the previous session so events only touch cards that exist
+    private void clearViews() {
+        cards.clear();
+        summaryValueLabels.clear();
+        summaryIconLabels.clear();
+        recentTransactions.clear();
+        transactionTableModel = null;
+        expensePieDataset = null;
+        recentTransactionsModel = null;
+        budgetTableModel = null;
+        budgetProgressBar = null;
+        budgetDataset = null;
+        expenseDataset = null;
+        comparisonDataset = null;
+        trendsDataset = null;
+        trendsPlot = null;
+        forecastDataset = null;
+        analyticsRangeCombo = null;
+        trendsGranularityCombo = null;
+        trendsCategoryCombo = null;
+    }
+
+    // Runs after the repaint queued by the dashboard rebuild, i.e. once it is on screen
+    private void reportFirstFrame() {
+        long started = loginStartedAt;
+        loginStartedAt = 0;
+        SwingUtilities.invokeLater(() -> {
+            System.out.printf("Login to first usable frame: %d ms%n", (System.nanoTime() - started) / 1_000_000);
+            scheduleWarmUp();
+        });
+    }
+
+    // Builds the likely next card and its first page while the user reads the dashboard
+    private void scheduleWarmUp() {
+        User user = currentUser;
+        Timer timer = new Timer(WARM_UP_DELAY_MS, e -> {
+            if (currentUser == user && !cards.containsKey(WARM_UP_CARD)) {
+                ensureCard(WARM_UP_CARD);
+                transactionTableModel.prefetch();
+            }
+        });
+        timer.setRepeats(false);
+        timer.start();
+    }
+
+    // Applies a coalesced batch of data events to the panels, touching only what changed
+    private void applyEvents(List<DataEvent> events) {
+        EdtMonitor.tag("apply data events");
+        if (analyticsPending != null) {
+            analyticsPending.addAll(events);
+        } else if (analytics != null && analytics.apply(events)) {
+            loadAnalytics();
+        }
+        if (currentUser == null || liveSummary == null) {
+            return;
+        }
+        LiveSummary.Delta delta = liveSummary.apply(events);
+        if (delta.isReloadRequired()) {
+            reloadSummaryPanels();
+            return;
+        }
+        if (delta.isTotalsChanged()) {
+            updateSummaryCards();
+            updateBudgetStatus();
+        }
+        // Each chart whose dataset changed redraws once, after the whole batch
+        try (DatasetBatch batch = new DatasetBatch()) {
+            if (delta.isTotalsChanged()) {
+                updateComparison(batch);
+            }
+            for (String category : delta.getCategories()) {
+                updateExpenseCategory(category, batch);
+                updateBudgetRow(category, batch);
+            }
+            for (String category : delta.getBudgetCategories()) {
+                updateBudgetRow(category, batch);
+            }
+            for (String month : delta.getMonths()) {
+                updateMonth(month, batch);
+                if (forecastDataset != null && month.compareTo(YearMonth.now().toString()) < 0) {
+                    forecastStale = true;
+                }
+            }
+            if (analyticsScoped()) {
+                updateAnalytics(batch);
+            } else if (trendsFromSeries()) {
+                updateTrends(batch);
+            }
+        }
+        if (forecastStale && !forecastLoading) {
+            loadForecast();
+        }
+        updateRecentTransactions(events);
+    }
+
+    // Brings every built view in line with a reloaded LiveSummary, writing only what differs
+    private void refreshViews() {
+        updateSummaryCards();
+        updateBudgetStatus();
+        showRecentTransactions();
+        try (DatasetBatch batch = new DatasetBatch()) {
+            if (expensePieDataset != null) {
+                batch.sync(expensePieDataset, liveSummary.getExpensesByCategory());
+            }
+            updateAnalytics(batch);
+            for (String category : liveSummary.getBudgets().getCategories()) {
+                updateBudgetRow(category, batch);
+            }
+        }
+        if (forecastDataset != null) {
+            loadForecast();
+        }
+    }
+
+    // Analytics charts show the live all-time totals, or the selected range computed by the
+    // in-memory engine once it has loaded
+    private void updateAnalytics(DatasetBatch batch) {
+        Map<String, Money> expenses;
+        Money income;
+        Money spent;
+        if (analyticsScoped()) {
+            LocalDate today = LocalDate.now();
+            LocalDate from = analyticsRange.from(today);
+            expenses = analytics.sumByCategory(AnalyticsEngine.EXPENSE, from, today);
+            income = analytics.sum(AnalyticsEngine.INCOME, from, today);
+            spent = analytics.sum(AnalyticsEngine.EXPENSE, from, today);
+        } else {
+            expenses = liveSummary.getExpensesByCategory();
+            income = liveSummary.getTotalIncome();
+            spent = liveSummary.getTotalExpenses();
+        }
+        if (expenseDataset != null) {
+            batch.sync(expenseDataset, "Expenses", expenses);
+        }
+        if (comparisonDataset != null) {
+            batch.setValue(comparisonDataset, income.toDouble(), "Income", "Total");
+            batch.setValue(comparisonDataset, spent.toDouble(), "Expenses", "Total");
+        }
+        updateTrends(batch);
+    }
+
+    // Trends show the live monthly totals until the user scopes, zooms or picks a category;
+    // from then on buckets are cut from the engine's daily prefix sums
+    private void updateTrends(DatasetBatch batch) {
+        if (trendsDataset == null) {
+            return;
+        }
+        Map<String, Money> buckets;
+        if (trendsFromSeries()) {
+            LocalDate today = LocalDate.now();
+            int category = trendsCategory == null ? -1 : TransactionPage.CATEGORIES.codeOf(trendsCategory);
+            buckets = analytics.getTimeSeries(AnalyticsEngine.EXPENSE).buckets(trendsGranularity,
+                    analyticsRange.from(today), analyticsRange == AnalyticsRange.ALL_TIME ? null : today, category);
+        } else {
+            buckets = liveSummary.getMonthlyExpenses();
+        }
+        batch.sync(trendsDataset, "Expenses", buckets);
+        if (!trendsDataset.getColumnKeys().equals(new ArrayList<>(buckets.keySet()))) {
+            batch.replace(trendsDataset, "Expenses", buckets);
+        }
+        trendsPlot.getDomainAxis().setLabel(trendsGranularity.getLabel());
+        trendsPlot.getDomainAxis().setTickLabelsVisible(buckets.size() <= MAX_LABELLED_BUCKETS);
+        updateForecast(batch);
+    }
+
+    // Dashed continuation of the monthly trend for the selected category, joined to the last
+    // completed month on the solid line; hidden at other granularities
+    private void updateForecast(DatasetBatch batch) {
+        if (forecastDataset == null) {
+            return;
+        }
+        Map<String, Money> projection = new LinkedHashMap<>();
+        if (forecast != null && trendsGranularity == TimeSeries.Granularity.MONTH) {
+            projection.putAll(forecast.getProjection(trendsCategory));
+            // Left out when the range hides it, or the axis would append it after the projection
+            String anchor = forecast.getMonth().minusMonths(1).toString();
+            if (trendsDataset.getColumnIndex(anchor) < 0) {
+                projection.remove(anchor);
+            }
+        }
+        batch.sync(forecastDataset, "Forecast", projection);
+        if (!forecastDataset.getColumnKeys().equals(new ArrayList<>(projection.keySet()))) {
+            batch.replace(forecastDataset, "Forecast", projection);
+        }
+    }
+
+    // Fits the forecast for the current month in the background, or marks it stale when a fit
+    // is already running
+    private void loadForecast() {
+        if (forecastLoading) {
+            forecastStale = true;
+            return;
+        }
+        User user = currentUser;
+        forecastLoading = true;
+        forecastStale = false;
+        AsyncDataService.onEdt(dataService.getSpendingForecast(user.getId(), YearMonth.now(), forecast), fitted -> {
+            if (currentUser != user) {
+                return; // Logged out while fitting; logout() already cleared forecastLoading
+            }
+            forecastLoading = false;
+            if (fitted != null) {
+                forecast = fitted;
+                try (DatasetBatch batch = new DatasetBatch()) {
+                    updateForecast(batch);
+                }
+            }
+            if (forecastStale) {
+                loadForecast();
+            }
+        }, () -> {
+            if (currentUser == user) {
+                forecastLoading = false;
+            }
+        });
+    }
+
+    private boolean analyticsScoped() {
+        return analyticsRange != AnalyticsRange.ALL_TIME && analytics != null;
+    }
+
+    private boolean trendsFromSeries() {
+        return analytics != null && (analyticsRange != AnalyticsRange.ALL_TIME
+                || trendsGranularity != TimeSeries.Granularity.MONTH || trendsCategory != null);
+    }
+
+    // Loads the in-memory analytics for the current user. Writes committed while it loads are
+    // replayed afterwards; the engine's id keys make replaying one it already read harmless.
+    private void loadAnalytics() {
+        User user = currentUser;
+        List<DataEvent> pending = new ArrayList<>();
+        analyticsPending = pending;
+        AsyncDataService.onEdt(dataService.loadAnalytics(user.getId()), engine -> {
+            if (currentUser != user || analyticsPending != pending) {
+                return; // Logged out or superseded while loading
+            }
+            analyticsPending = null;
+            if (engine == null) {
+                return;
+            }
+            if (engine.apply(pending)) {
+                loadAnalytics();
+                return;
+            }
+            analytics = engine;
+            if (analyticsRangeCombo != null) {
+                analyticsRangeCombo.setEnabled(true);
+                trendsGranularityCombo.setEnabled(true);
+                trendsCategoryCombo.setEnabled(true);
+            }
+            if (liveSummary != null && trendsFromSeries()) {
+                try (DatasetBatch batch = new DatasetBatch()) {
+                    updateAnalytics(batch);
+                }
+            }
+        }, () -> {
+            if (analyticsPending == pending) {
+                analyticsPending = null;
+            }
+        });
+    }
+
+    private void updateComparison(DatasetBatch batch) {
+        if (comparisonDataset != null && !analyticsScoped()) {
+            batch.setValue(comparisonDataset, liveSummary.getTotalIncome().toDouble(), "Income", "Total");
+            batch.setValue(comparisonDataset, liveSummary.getTotalExpenses().toDouble(), "Expenses", "Total");
+        }
+    }
+
+    private void updateSummaryCards() {
+        if (summaryValueLabels.isEmpty()) {
+            return;
+        }
+        Money balance = liveSummary.getBalance();
+        summaryValueLabels.get("Total Income").setText(liveSummary.getTotalIncome().format());
+        summaryValueLabels.get("Total Expenses").setText(liveSummary.getTotalExpenses().format());
+        summaryValueLabels.get("Current Balance").setText(balance.format());
+        summaryValueLabels.get("Transactions").setText(String.valueOf(liveSummary.getTransactionCount()));
+        JLabel balanceIcon = summaryIconLabels.get("Current Balance");
+        balanceIcon.setText(balance.signum() >= 0 ? "↗" : "↘");
+        balanceIcon.setForeground(balance.signum() >= 0 ? SUCCESS_COLOR : DANGER_COLOR);
+    }
+
+    private void updateExpenseCategory(String category, DatasetBatch batch) {
+        Money spent = liveSummary.getSpentInCategory(category);
+        if (expensePieDataset != null) {
+            if (spent.signum() != 0) {
+                batch.setValue(expensePieDataset, category, spent.toDouble());
+            } else {
+                batch.remove(expensePieDataset, category);
+            }
+        }
+        if (expenseDataset != null && !analyticsScoped()) {
+            if (spent.signum() != 0) {
+                batch.setValue(expenseDataset, spent.toDouble(), "Expenses", category);
+            } else {
+                batch.removeColumn(expenseDataset, category);
+            }
+        }
+    }
+
+    private void updateMonth(String month, DatasetBatch batch) {
+        if (trendsDataset == null || trendsFromSeries()) {
+            return;
+        }
+        Money spent = liveSummary.getMonthExpenses(month);
+        if (spent == null) {
+            batch.removeColumn(trendsDataset, month);
+        } else if (trendsDataset.getColumnIndex(month) >= 0 || month.equals(liveSummary.getLastMonth())) {
+            batch.setValue(trendsDataset, spent.toDouble(), "Expenses", month);
+        } else {
+            // A new month before the last one: columns keep insertion order, so rebuild
+            batch.replace(trendsDataset, "Expenses", liveSummary.getMonthlyExpenses());
+        }
+    }
+
+    private void updateRecentTransactions(List<DataEvent> events) {
+        boolean refill = false;
+        for (DataEvent event : events) {
+            if (event.getUserId() != currentUser.getId()) {
+                continue;
+            }
+            if (event instanceof DataEvent.TransactionAdded) {
+                Transaction t = ((DataEvent.TransactionAdded) event).getTransaction();
+                int index = 0;
+                while (index < recentTransactions.size()
+                        && TransactionTableModel.precedes(recentTransactions.get(index), t)) {
+                    index++;
+                }
+                if (index < AsyncDataService.RECENT_TRANSACTIONS) {
+                    recentTransactions.add(index, t);
+                    if (recentTransactionsModel != null) {
+                        recentTransactionsModel.insertRow(index, recentRow(t));
+                    }
+                    if (recentTransactions.size() > AsyncDataService.RECENT_TRANSACTIONS) {
+                        recentTransactions.remove(AsyncDataService.RECENT_TRANSACTIONS);
+                        if (recentTransactionsModel != null) {
+                            recentTransactionsModel.removeRow(AsyncDataService.RECENT_TRANSACTIONS);
+                        }
+                    }
+                }
+            } else if (event instanceof DataEvent.TransactionUpdated) {
+                Transaction t = ((DataEvent.TransactionUpdated) event).getAfter();
+                int index = indexOfRecent(t.getId());
+                if (index >= 0) {
+                    recentTransactions.set(index, t);
+                    if (recentTransactionsModel != null) {
+                        Object[] row = recentRow(t);
+                        for (int column = 0; column < row.length; column++) {
+                            recentTransactionsModel.setValueAt(row[column], index, column);
+                        }
+                    }
+                }
+            } else if (event instanceof DataEvent.TransactionDeleted) {
+                int index = indexOfRecent(((DataEvent.TransactionDeleted) event).getTransaction().getId());
+                if (index >= 0) {
+                    recentTransactions.remove(index);
+                    if (recentTransactionsModel != null) {
+                        recentTransactionsModel.removeRow(index);
+                    }
+                    refill = true;
+                }
+            }
+        }
+        if (refill) {
+            // The row that moves up into the list is not known locally
+            User user = currentUser;
+            AsyncDataService.onEdt(dataService.submit(db ->
+                    db.getRecentTransactions(user.getId(), AsyncDataService.RECENT_TRANSACTIONS)), recent -> {
+                if (currentUser == user) {
+                    recentTransactions.clear();
+                    recentTransactions.addAll(recent);
+                    showRecentTransactions();
+                }
+            });
+        }
+    }
+
+    private int indexOfRecent(int transactionId) {
+        for (int i = 0; i < recentTransactions.size(); i++) {
+            if (recentTransactions.get(i).getId() == transactionId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void showRecentTransactions() {
+        if (recentTransactionsModel == null) {
+            return;
+        }
+        recentTransactionsModel.setRowCount(0);
+        for (Transaction t : recentTransactions) {
+            recentTransactionsModel.addRow(recentRow(t));
+        }
+    }
+
+    private static Object[] recentRow(Transaction t) {
+        return new Object[]{
+                t.getDate().format(DateTimeFormatter.ofPattern("MMM dd")),
+                t.getDescription(),
+                t.getAmount().format()
+        };
+    }
+
+    private JPanel createLoadingPanel() {
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.setBackground(BACKGROUND);
+
+        JLabel loadingLabel = new JLabel("Loading...", JLabel.CENTER);
+        loadingLabel.setFont(new Font("Segoe UI", Font.PLAIN, 16));
+        loadingLabel.setForeground(TEXT_SECONDARY);
+        panel.add(loadingLabel, BorderLayout.CENTER);
+
+        return panel;
+    }
+
+    private void replaceCard(String name) {
+        contentPanel.remove(cards.remove(name));
+        ensureCard(name);
+        cardLayout.show(contentPanel, currentPageLabel.getText());
+        contentPanel.revalidate();
+        contentPanel.repaint();
     }
 
     private void createHeader() {
@@ -194,7 +797,7 @@ public class PersonalFinanceManager extends JFrame {
         JPanel logoPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 0));
         logoPanel.setBackground(CARD_BACKGROUND);
 
-        JLabel iconLabel = new JLabel(new ImageIcon(createAppIcon().getScaledInstance(32, 32, Image.SCALE_SMOOTH)));
+        JLabel iconLabel = new JLabel(new ImageIcon(APP_ICON.join().getScaledInstance(32, 32, Image.SCALE_SMOOTH)));
         JLabel titleLabel = new JLabel("Finance Manager");
         titleLabel.setFont(new Font("Segoe UI", Font.BOLD, 18));
         titleLabel.setForeground(PRIMARY_COLOR);
@@ -253,8 +856,8 @@ public class PersonalFinanceManager extends JFrame {
         });
 
         btn.addActionListener(e -> {
-            cardLayout.show(contentPanel, text);
-            currentPageLabel.setText(text);
+            EdtMonitor.tag("navigate to " + text);
+            showCard(text);
             highlightNavButton(btn);
         });
 
@@ -290,6 +893,7 @@ public class PersonalFinanceManager extends JFrame {
     }
 
     private JPanel createDashboardPanel() {
+        LiveSummary summary = liveSummary;
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBackground(BACKGROUND);
 
@@ -298,16 +902,16 @@ public class PersonalFinanceManager extends JFrame {
         summaryPanel.setBackground(BACKGROUND);
         summaryPanel.setBorder(new EmptyBorder(0, 0, 20, 0));
 
-        double totalIncome = dbManager.getTotalIncome(currentUser.getId());
-        double totalExpenses = dbManager.getTotalExpenses(currentUser.getId());
-        double balance = totalIncome - totalExpenses;
-        int transactionCount = dbManager.getTransactionCount(currentUser.getId());
+        Money totalIncome = summary.getTotalIncome();
+        Money totalExpenses = summary.getTotalExpenses();
+        Money balance = summary.getBalance();
+        int transactionCount = summary.getTransactionCount();
 
-        summaryPanel.add(createSummaryCard("Total Income", totalIncome, "↑", SUCCESS_COLOR));
-        summaryPanel.add(createSummaryCard("Total Expenses", totalExpenses, "↓", DANGER_COLOR));
-        summaryPanel.add(createSummaryCard("Current Balance", balance,
-                balance >= 0 ? "↗" : "↘", balance >= 0 ? SUCCESS_COLOR : DANGER_COLOR));
-        summaryPanel.add(createSummaryCard("Transactions", transactionCount, "⇄", PRIMARY_COLOR));
+        summaryPanel.add(createSummaryCard("Total Income", totalIncome.format(), "↑", SUCCESS_COLOR));
+        summaryPanel.add(createSummaryCard("Total Expenses", totalExpenses.format(), "↓", DANGER_COLOR));
+        summaryPanel.add(createSummaryCard("Current Balance", balance.format(),
+                balance.signum() >= 0 ? "↗" : "↘", balance.signum() >= 0 ? SUCCESS_COLOR : DANGER_COLOR));
+        summaryPanel.add(createSummaryCard("Transactions", String.valueOf(transactionCount), "⇄", PRIMARY_COLOR));
 
         panel.add(summaryPanel, BorderLayout.NORTH);
 
@@ -323,9 +927,10 @@ public class PersonalFinanceManager extends JFrame {
                 new EmptyBorder(15, 15, 15, 15)
         ));
 
-        DefaultPieDataset dataset = new DefaultPieDataset();
-        Map<String, Double> expensesByCategory = dbManager.getExpensesByCategory(currentUser.getId());
-        expensesByCategory.forEach(dataset::setValue);
+        DefaultPieDataset<String> dataset = new DefaultPieDataset<>();
+        summary.getExpensesByCategory().forEach((category, amount) ->
+                dataset.setValue(category, amount.toDouble()));
+        expensePieDataset = dataset;
 
         JFreeChart chart = ChartFactory.createPieChart(
                 "Expense Breakdown",
@@ -365,22 +970,15 @@ public class PersonalFinanceManager extends JFrame {
         DefaultTableModel model = new DefaultTableModel(
                 new String[]{"Date", "Description", "Amount"}, 0
         );
-
-        List<Transaction> recentTransactions = dbManager.getRecentTransactions(currentUser.getId(), 5);
-        for (Transaction t : recentTransactions) {
-            model.addRow(new Object[]{
-                    t.getDate().format(DateTimeFormatter.ofPattern("MMM dd")),
-                    t.getDescription(),
-                    String.format("%.2f FCFA", t.getAmount())
-            });
-        }
+        recentTransactionsModel = model;
+        showRecentTransactions();
 
         JTable table = new JTable(model);
         styleTable(table);
 
         JButton viewAllBtn = new JButton("View All Transactions");
         viewAllBtn.addActionListener(e -> {
-            currentPageLabel.setText("Transactions");
+            showCard("Transactions");
             // Find the transactions nav button and highlight it
             Component sidebar = mainPanel.getComponent(1); // Sidebar panel
             if (sidebar instanceof Container) {
@@ -392,7 +990,6 @@ public class PersonalFinanceManager extends JFrame {
                     }
                 }
             }
-            cardLayout.show(contentPanel, "Transactions");
         });
         styleButton(viewAllBtn, PRIMARY_COLOR, true);
 
@@ -408,7 +1005,7 @@ public class PersonalFinanceManager extends JFrame {
         return panel;
     }
 
-    private JPanel createSummaryCard(String title, double value, String icon, Color color) {
+    private JPanel createSummaryCard(String title, String value, String icon, Color color) {
         JPanel card = new JPanel(new BorderLayout());
         card.setBackground(CARD_BACKGROUND);
         card.setBorder(BorderFactory.createCompoundBorder(
@@ -425,10 +1022,13 @@ public class PersonalFinanceManager extends JFrame {
         titleLabel.setFont(new Font("Segoe UI", Font.PLAIN, 14));
         titleLabel.setForeground(TEXT_SECONDARY);
 
-        JLabel valueLabel = new JLabel(String.format("%.2f FCFA", value));
+        JLabel valueLabel = new JLabel(value);
         valueLabel.setFont(new Font("Segoe UI", Font.BOLD, 24));
         valueLabel.setForeground(TEXT_PRIMARY);
 
+        summaryValueLabels.put(title, valueLabel);
+        summaryIconLabels.put(title, iconLabel);
+
         JPanel topPanel = new JPanel(new BorderLayout());
         topPanel.setBackground(CARD_BACKGROUND);
         topPanel.add(titleLabel, BorderLayout.WEST);
@@ -483,30 +1083,72 @@ public class PersonalFinanceManager extends JFrame {
         filterBtn.addActionListener(e -> showFilterDialog());
         styleButton(filterBtn, PRIMARY_COLOR, true);
 
+        // Live description search: the query is re-run once typing pauses, and each new
+        // query cancels the loads still queued for the previous one
+        JTextField searchField = createStyledTextField();
+        searchField.setToolTipText("Search descriptions: words match as prefixes, \"quoted phrases\" exactly");
+        Timer searchDebounce = new Timer(SEARCH_DEBOUNCE_MS, e -> transactionTableModel.setQuery(
+                transactionTableModel.getQuery().withText(searchField.getText())));
+        searchDebounce.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                searchDebounce.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                searchDebounce.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                searchDebounce.restart();
+            }
+        });
+
+        buttonPanel.add(searchField);
         buttonPanel.add(filterBtn);
         buttonPanel.add(addBtn);
 
         headerPanel.add(titleLabel, BorderLayout.WEST);
         headerPanel.add(buttonPanel, BorderLayout.EAST);
 
-        // Transaction table
-        DefaultTableModel model = new DefaultTableModel(
-                new String[]{"ID", "Date", "Description", "Category", "Amount", "Type", "Actions"}, 0
-        ) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return column == 6; // Only actions column is editable
-            }
-        };
+        // Transaction table, paged in from the database as it scrolls
+        transactionTableModel = new TransactionTableModel(dataService, currentUser.getId());
+        dbManager.getEvents().subscribe(transactionTableModel);
 
-        JTable table = new JTable(model);
+        JTable table = new JTable(transactionTableModel);
         styleTable(table);
+        table.getColumnModel().getColumn(TransactionTableModel.DATE_COLUMN)
+                .setCellRenderer(styleRenderer(FormattedCellRenderer.epochDate("MMM dd, yyyy")));
+        table.getColumnModel().getColumn(TransactionTableModel.AMOUNT_COLUMN)
+                .setCellRenderer(styleRenderer(FormattedCellRenderer.money()));
 
         // Add action buttons column
         table.getColumn("Actions").setCellRenderer(new ActionButtonRenderer());
         table.getColumn("Actions").setCellEditor(new ActionButtonEditor(table));
 
-        loadTransactions(model);
+        // Clicking a header sorts by that column, shift-click adds it as a further sort key;
+        // clicking a sorted column again reverses it
+        table.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int column = table.convertColumnIndexToModel(table.columnAtPoint(e.getPoint()));
+                TransactionSort.Column sortColumn = TransactionTableModel.sortColumnOf(column);
+                if (sortColumn == null) {
+                    return;
+                }
+                EdtMonitor.tag("sort transactions");
+                TransactionSort sort = transactionTableModel.getQuery().getSort();
+                transactionTableModel.setSort(e.isShiftDown() ? sort.thenBy(sortColumn) : sort.by(sortColumn));
+                for (int i = 0; i < table.getColumnCount(); i++) {
+                    TableColumn tableColumn = table.getColumnModel().getColumn(i);
+                    tableColumn.setHeaderValue(transactionTableModel.getColumnName(tableColumn.getModelIndex()));
+                }
+                table.getTableHeader().repaint();
+            }
+        });
 
         JScrollPane scrollPane = new JScrollPane(table);
         scrollPane.setBackground(BACKGROUND);
@@ -521,120 +1163,6 @@ public class PersonalFinanceManager extends JFrame {
 
         return panel;
     }
-    private void refreshAllData() {
-        // Refresh transactions panel
-        Component transactionsCard = contentPanel.getComponent(1); // Transactions panel is usually the 2nd card
-        if (transactionsCard instanceof Container) {
-            Component scrollPane = ((Container)transactionsCard).getComponent(1); // ScrollPane is usually the 2nd component
-            if (scrollPane instanceof JScrollPane) {
-                JTable transactionsTable = (JTable)((JScrollPane)scrollPane).getViewport().getView();
-                loadTransactions((DefaultTableModel)transactionsTable.getModel());
-            }
-        }
-
-        // Refresh budgets panel
-        Component budgetsCard = contentPanel.getComponent(2); // Budgets panel is usually the 3rd card
-        if (budgetsCard instanceof Container) {
-            Component scrollPane = ((Container)budgetsCard).getComponent(2); // ScrollPane is usually the 3rd component
-            if (scrollPane instanceof JScrollPane) {
-                JTable budgetsTable = (JTable)((JScrollPane)scrollPane).getViewport().getView();
-                loadBudgets((DefaultTableModel)budgetsTable.getModel());
-            }
-        }
-        Component analyticsCard = contentPanel.getComponent(3);
-        if (analyticsCard instanceof JTabbedPane) {
-            JTabbedPane analyticsTabbedPane = (JTabbedPane)analyticsCard;
-
-            // Refresh expense analysis chart
-            Component expenseTab = analyticsTabbedPane.getComponent(0);
-            if (expenseTab instanceof ChartPanel) {
-                ((ChartPanel)expenseTab).setChart(createExpenseChart());
-            }
-
-            // Refresh income vs expense chart
-            Component comparisonTab = analyticsTabbedPane.getComponent(1);
-            if (comparisonTab instanceof ChartPanel) {
-                ((ChartPanel)comparisonTab).setChart(createComparisonChart());
-            }
-
-            // Refresh monthly trends chart
-            Component trendsTab = analyticsTabbedPane.getComponent(2);
-            if (trendsTab instanceof ChartPanel) {
-                ((ChartPanel)trendsTab).setChart(createTrendsChart());
-            }
-        }
-
-
-        // Refresh dashboard
-        contentPanel.remove(0); // Remove old dashboard
-        contentPanel.add(createDashboardPanel(), "Dashboard", 0); // Add new dashboard at position 0
-        cardLayout.show(contentPanel, currentPageLabel.getText()); // Show current page
-    }
-    // Add these helper methods to your class:
-    private JFreeChart createExpenseChart() {
-        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
-        Map<String, Double> expensesByCategory = dbManager.getExpensesByCategory(currentUser.getId());
-        expensesByCategory.forEach((category, amount) ->
-                dataset.addValue(amount, "Expenses", category));
-
-        return ChartFactory.createBarChart(
-                "Expenses by Category (FCFA)",
-                "Category",
-                "Amount",
-                dataset,
-                PlotOrientation.VERTICAL,
-                true, true, false
-        );
-    }
-
-    private JFreeChart createComparisonChart() {
-        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
-        dataset.addValue(dbManager.getTotalIncome(currentUser.getId()), "Income", "Total");
-        dataset.addValue(dbManager.getTotalExpenses(currentUser.getId()), "Expenses", "Total");
-
-        return ChartFactory.createBarChart(
-                "Income vs Expenses (FCFA)",
-                "",
-                "Amount",
-                dataset,
-                PlotOrientation.VERTICAL,
-                true, true, false
-        );
-    }
-
-    private JFreeChart createTrendsChart() {
-        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
-        Map<String, Double> monthlyExpenses = dbManager.getMonthlyExpenses(currentUser.getId());
-        monthlyExpenses.forEach((month, amount) ->
-                dataset.addValue(amount, "Expenses", month));
-
-        return ChartFactory.createLineChart(
-                "Monthly Spending Trends (FCFA)",
-                "Month",
-                "Amount",
-                dataset,
-                PlotOrientation.VERTICAL,
-                true, true, false
-        );
-    }
-
-    private void loadTransactions(DefaultTableModel model) {
-        model.setRowCount(0);
-        List<Transaction> transactions = dbManager.getAllTransactions(currentUser.getId());
-
-        for (Transaction t : transactions) {
-            model.addRow(new Object[]{
-                    t.getId(),
-                    t.getDate().format(DateTimeFormatter.ofPattern("MMM dd, yyyy")),
-                    t.getDescription(),
-                    t.getCategory(),
-                    String.format("%.2f FCFA", t.getAmount()),
-                    t.getType(),
-                    "Actions"
-            });
-        }
-    }
-
     private void showAddTransactionDialog() {
         JDialog dialog = new JDialog(this, "Add Transaction", true);
         dialog.setSize(450, 400);
@@ -676,9 +1204,10 @@ public class PersonalFinanceManager extends JFrame {
 
         JButton saveBtn = new JButton("Save");
         saveBtn.addActionListener(e -> {
+            EdtMonitor.tag("save transaction");
             try {
                 String desc = descField.getText().trim();
-                double amount = Double.parseDouble(amountField.getText().trim());
+                Money amount = Money.parse(amountField.getText());
                 String category = (String) categoryCombo.getSelectedItem();
                 String type = (String) typeCombo.getSelectedItem();
 
@@ -690,30 +1219,18 @@ public class PersonalFinanceManager extends JFrame {
 
                 Transaction transaction = new Transaction(0, currentUser.getId(), LocalDateTime.now(),
                         desc, category, amount, type);
-                if (dbManager.addTransaction(transaction)) {
-
-                    // Get the transactions panel (assuming it's the second card in contentPanel)
-                    Component transactionsCard = contentPanel.getComponent(1);
-                    if (transactionsCard instanceof Container) {
-                        Container transactionsContainer = (Container) transactionsCard;
-                        // Get the scroll pane (assuming it's the second component in the transactions panel)
-                        Component scrollPane = transactionsContainer.getComponent(1);
-                        if (scrollPane instanceof JScrollPane) {
-                            JScrollPane jScrollPane = (JScrollPane) scrollPane;
-                            // Get the table from the viewport
-                            JTable table = (JTable) jScrollPane.getViewport().getView();
-                            // Refresh the table model
-                            loadTransactions((DefaultTableModel) table.getModel());
-                        }
+                saveBtn.setEnabled(false);
+                AsyncDataService.onEdt(dataService.addTransaction(transaction), added -> {
+                    saveBtn.setEnabled(true);
+                    if (added) {
+                        dialog.dispose();
+                        JOptionPane.showMessageDialog(dialog,
+                                "Transaction added successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
+                    } else {
+                        JOptionPane.showMessageDialog(dialog,
+                                "Failed to add transaction", "Error", JOptionPane.ERROR_MESSAGE);
                     }
-                    refreshAllData();
-                    dialog.dispose();
-                    JOptionPane.showMessageDialog(dialog,
-                            "Transaction added successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
-                } else {
-                    JOptionPane.showMessageDialog(dialog,
-                            "Failed to add transaction", "Error", JOptionPane.ERROR_MESSAGE);
-                }
+                }, () -> saveBtn.setEnabled(true));
             } catch (NumberFormatException ex) {
                 JOptionPane.showMessageDialog(dialog,
                         "Please enter a valid amount", "Error", JOptionPane.ERROR_MESSAGE);
@@ -737,6 +1254,7 @@ public class PersonalFinanceManager extends JFrame {
     }
 
     private JPanel createBudgetPanel() {
+        LiveSummary summary = liveSummary;
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBackground(BACKGROUND);
 
@@ -774,26 +1292,22 @@ public class PersonalFinanceManager extends JFrame {
         statusLabel.setForeground(TEXT_PRIMARY);
         statusLabel.setBorder(new EmptyBorder(0, 0, 10, 0));
 
-        double totalBudget = dbManager.getAllBudgets(currentUser.getId()).stream()
-                .mapToDouble(Budget::getAmount).sum();
-        double totalSpent = dbManager.getTotalExpenses(currentUser.getId());
-        double remaining = totalBudget - totalSpent;
-        double percentageUsed = totalBudget > 0 ? (totalSpent / totalBudget) * 100 : 0;
-
         JProgressBar progressBar = new JProgressBar(0, 100);
-        progressBar.setValue((int)percentageUsed);
         progressBar.setStringPainted(true);
-        progressBar.setString(String.format("%.1f%%", percentageUsed));
-        progressBar.setForeground(percentageUsed > 90 ? DANGER_COLOR :
-                percentageUsed > 70 ? WARNING_COLOR : SUCCESS_COLOR);
         progressBar.setBackground(new Color(230, 230, 230));
         progressBar.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        budgetProgressBar = progressBar;
+
+        totalBudgetLabel = new JLabel();
+        totalSpentLabel = new JLabel();
+        budgetRemainingLabel = new JLabel();
+        updateBudgetStatus();
 
         JPanel statsPanel = new JPanel(new GridLayout(3, 1, 5, 5));
         statsPanel.setBackground(CARD_BACKGROUND);
-        statsPanel.add(createStatItem("Total Budget", String.format("%.2f FCFA", totalBudget)));
-        statsPanel.add(createStatItem("Total Spent", String.format("%.2f FCFA", totalSpent)));
-        statsPanel.add(createStatItem("Remaining", String.format("%.2f FCFA", remaining)));
+        statsPanel.add(createStatItem("Total Budget", totalBudgetLabel));
+        statsPanel.add(createStatItem("Total Spent", totalSpentLabel));
+        statsPanel.add(createStatItem("Remaining", budgetRemainingLabel));
 
         statusPanel.add(statusLabel, BorderLayout.NORTH);
         statusPanel.add(progressBar, BorderLayout.CENTER);
@@ -808,16 +1322,12 @@ public class PersonalFinanceManager extends JFrame {
         ));
 
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
-        Map<String, Double> budgetByCategory = new HashMap<>();
-        dbManager.getAllBudgets(currentUser.getId()).forEach(b ->
-                budgetByCategory.put(b.getCategory(), b.getAmount()));
-
-        Map<String, Double> spentByCategory = dbManager.getExpensesByCategory(currentUser.getId());
-
-        budgetByCategory.forEach((category, budget) -> {
-            dataset.addValue(budget, "Budget", category);
-            dataset.addValue(spentByCategory.getOrDefault(category, 0.0), "Spent", category);
-        });
+        BudgetTracker budgets = summary.getBudgets();
+        for (String category : budgets.getCategories()) {
+            dataset.addValue(budgets.getBudget(category).getAmount().toDouble(), "Budget", category);
+            dataset.addValue(budgets.getSpent(category).toDouble(), "Spent", category);
+        }
+        budgetDataset = dataset;
 
         JFreeChart chart = ChartFactory.createBarChart(
                 "Budget vs Actual",
@@ -844,17 +1354,14 @@ public class PersonalFinanceManager extends JFrame {
         overviewPanel.add(chartPanel);
 
         // Budget table
-        DefaultTableModel model = new DefaultTableModel(
-                new String[]{"Category", "Budget", "Spent", "Remaining", "Status"}, 0
-        ) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        BudgetTableModel model = new BudgetTableModel();
 
         JTable table = new JTable(model);
         styleTable(table);
+        FormattedCellRenderer moneyRenderer = styleRenderer(FormattedCellRenderer.money());
+        for (int column = 2; column <= 4; column++) {
+            table.getColumnModel().getColumn(column).setCellRenderer(moneyRenderer);
+        }
 
         // Color status column
         table.getColumn("Status").setCellRenderer(new DefaultTableCellRenderer() {
@@ -864,8 +1371,7 @@ public class PersonalFinanceManager extends JFrame {
                 Component c = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
                 c.setFont(new Font("Segoe UI", Font.PLAIN, 12));
 
-                String status = (String) value;
-                if (status.equals("On Track")) {
+                if (BudgetTableModel.ON_TRACK.equals(value)) {
                     c.setForeground(SUCCESS_COLOR);
                 } else {
                     c.setForeground(DANGER_COLOR);
@@ -875,7 +1381,12 @@ public class PersonalFinanceManager extends JFrame {
             }
         });
 
-        loadBudgets(model);
+        budgetTableModel = model;
+        try (DatasetBatch batch = new DatasetBatch()) {
+            for (String category : summary.getBudgets().getCategories()) {
+                updateBudgetRow(category, batch);
+            }
+        }
 
         JScrollPane scrollPane = new JScrollPane(table);
         scrollPane.setBackground(BACKGROUND);
@@ -892,7 +1403,7 @@ public class PersonalFinanceManager extends JFrame {
         return panel;
     }
 
-    private JPanel createStatItem(String label, String value) {
+    private JPanel createStatItem(String label, JLabel valueComponent) {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBackground(CARD_BACKGROUND);
 
@@ -900,7 +1411,6 @@ public class PersonalFinanceManager extends JFrame {
         labelComponent.setFont(new Font("Segoe UI", Font.PLAIN, 12));
         labelComponent.setForeground(TEXT_SECONDARY);
 
-        JLabel valueComponent = new JLabel(value);
         valueComponent.setFont(new Font("Segoe UI", Font.BOLD, 14));
         valueComponent.setForeground(TEXT_PRIMARY);
         valueComponent.setHorizontalAlignment(JLabel.RIGHT);
@@ -911,28 +1421,42 @@ public class PersonalFinanceManager extends JFrame {
         return panel;
     }
 
-    private void loadBudgets(DefaultTableModel model) {
-        model.setRowCount(0);
-        List<Budget> budgets = dbManager.getAllBudgets(currentUser.getId());
-
-        for (Budget budget : budgets) {
-            double spent = dbManager.getSpentInCategory(currentUser.getId(), budget.getCategory());
-            double remaining = budget.getAmount() - spent;
-            String status = remaining >= 0 ? "On Track" : "Over Budget";
+    private void updateBudgetStatus() {
+        if (budgetProgressBar == null) {
+            return;
+        }
+        Money totalBudget = liveSummary.getTotalBudget();
+        Money totalSpent = liveSummary.getBudgets().getTotalSpent();
+        Money remaining = totalBudget.minus(totalSpent);
+        double percentageUsed = totalBudget.signum() > 0
+                ? (totalSpent.getMinorUnits() * 100.0) / totalBudget.getMinorUnits() : 0;
+
+        budgetProgressBar.setValue((int)percentageUsed);
+        budgetProgressBar.setString(String.format("%.1f%%", percentageUsed));
+        budgetProgressBar.setForeground(percentageUsed > 90 ? DANGER_COLOR :
+                percentageUsed > 70 ? WARNING_COLOR : SUCCESS_COLOR);
+        totalBudgetLabel.setText(totalBudget.format());
+        totalSpentLabel.setText(totalSpent.format());
+        budgetRemainingLabel.setText(remaining.format());
+    }
 
-            model.addRow(new Object[]{
-                    budget.getCategory(),
-                    String.format("%.2f FCFA", budget.getAmount()),
-                    String.format("%.2f FCFA", spent),
-                    String.format("%.2f FCFA", remaining),
-                    status
-            });
+    // Adds or refreshes one category's row in the budget table and chart
+    private void updateBudgetRow(String category, DatasetBatch batch) {
+        BudgetTracker budgets = liveSummary.getBudgets();
+        Budget budget = budgets.getBudget(category);
+        if (budget == null || budgetTableModel == null) {
+            return;
         }
+        Money spent = budgets.getSpent(category);
+        budgetTableModel.setRow(category, budget.getPeriod(), budgets.getWindowStart(category),
+                budgets.getWindowEnd(category), budget.getAmount().getMinorUnits(), spent.getMinorUnits());
+        batch.setValue(budgetDataset, budget.getAmount().toDouble(), "Budget", category);
+        batch.setValue(budgetDataset, spent.toDouble(), "Spent", category);
     }
 
     private void showAddBudgetDialog() {
         JDialog dialog = new JDialog(this, "Add Budget", true);
-        dialog.setSize(400, 300);
+        dialog.setSize(400, 380);
         dialog.setLocationRelativeTo(this);
         dialog.setLayout(new GridBagLayout());
         dialog.getContentPane().setBackground(BACKGROUND);
@@ -953,11 +1477,21 @@ public class PersonalFinanceManager extends JFrame {
                 "Shopping", "Education", "Travel", "Other"
         });
         JTextField amountField = createStyledTextField();
+        JComboBox<String> periodCombo = new JComboBox<>();
+        for (BudgetPeriod period : BudgetPeriod.values()) {
+            periodCombo.addItem(period.getLabel());
+        }
+        periodCombo.setSelectedItem(BudgetPeriod.MONTHLY.getLabel());
+        JTextField startDateField = createStyledTextField();
+        startDateField.setText(LocalDate.now().withDayOfMonth(1).toString());
 
         styleComboBox(categoryCombo);
+        styleComboBox(periodCombo);
 
         addFormField(dialog, gbc, 1, "Category:", categoryCombo);
         addFormField(dialog, gbc, 2, "Amount:", amountField);
+        addFormField(dialog, gbc, 3, "Period:", periodCombo);
+        addFormField(dialog, gbc, 4, "Start Date:", startDateField);
 
         // Buttons
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 0));
@@ -965,37 +1499,41 @@ public class PersonalFinanceManager extends JFrame {
 
         JButton saveBtn = new JButton("Save");
         saveBtn.addActionListener(e -> {
+            EdtMonitor.tag("save budget");
             try {
                 String category = (String) categoryCombo.getSelectedItem();
-                double amount = Double.parseDouble(amountField.getText().trim());
+                Money amount = Money.parse(amountField.getText());
 
-                if (amount <= 0) {
+                if (amount.signum() <= 0) {
                     JOptionPane.showMessageDialog(dialog,
                             "Budget amount must be positive", "Error", JOptionPane.ERROR_MESSAGE);
                     return;
                 }
 
-                Budget budget = new Budget(0, currentUser.getId(), category, amount);
-
-                if (dbManager.addBudget(budget)) {
-                    // Safely get the budget table
-                    Component budgetCard = contentPanel.getComponent(2); // Budget panel is 3rd card
-                    if (budgetCard instanceof Container) {
-                        Container budgetContainer = (Container) budgetCard;
-                        Component budgetScrollPane = budgetContainer.getComponent(2); // ScrollPane is 3rd component
-                        if (budgetScrollPane instanceof JScrollPane) {
-                            JTable budgetTable = (JTable)((JScrollPane)budgetScrollPane).getViewport().getView();
-                            loadBudgets((DefaultTableModel) budgetTable.getModel());
-                        }
-                    }
-
-                    dialog.dispose();
-                    JOptionPane.showMessageDialog(dialog,
-                            "Budget added successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
-                } else {
+                BudgetPeriod period = BudgetPeriod.of((String) periodCombo.getSelectedItem());
+                LocalDate startDate;
+                try {
+                    startDate = LocalDate.parse(startDateField.getText().trim());
+                } catch (DateTimeParseException ex) {
                     JOptionPane.showMessageDialog(dialog,
-                            "Failed to add budget", "Error", JOptionPane.ERROR_MESSAGE);
+                            "Please enter the start date as yyyy-MM-dd", "Error", JOptionPane.ERROR_MESSAGE);
+                    return;
                 }
+
+                Budget budget = new Budget(0, currentUser.getId(), category, amount, period, startDate);
+
+                saveBtn.setEnabled(false);
+                AsyncDataService.onEdt(dataService.addBudget(budget), added -> {
+                    saveBtn.setEnabled(true);
+                    if (added) {
+                        dialog.dispose();
+                        JOptionPane.showMessageDialog(dialog,
+                                "Budget added successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
+                    } else {
+                        JOptionPane.showMessageDialog(dialog,
+                                "Failed to add budget", "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                }, () -> saveBtn.setEnabled(true));
             } catch (NumberFormatException ex) {
                 JOptionPane.showMessageDialog(dialog,
                         "Please enter a valid amount", "Error", JOptionPane.ERROR_MESSAGE);
@@ -1010,7 +1548,7 @@ public class PersonalFinanceManager extends JFrame {
         buttonPanel.add(cancelBtn);
         buttonPanel.add(saveBtn);
 
-        gbc.gridx = 0; gbc.gridy = 3;
+        gbc.gridx = 0; gbc.gridy = 5;
         gbc.gridwidth = 2;
         gbc.anchor = GridBagConstraints.EAST;
         dialog.add(buttonPanel, gbc);
@@ -1019,14 +1557,41 @@ public class PersonalFinanceManager extends JFrame {
     }
 
     private JPanel createAnalyticsPanel() {
+        LiveSummary summary = liveSummary;
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBackground(BACKGROUND);
 
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setBackground(BACKGROUND);
+        headerPanel.setBorder(new EmptyBorder(0, 0, 20, 0));
+
         JLabel titleLabel = new JLabel("Financial Analytics");
         titleLabel.setFont(new Font("Segoe UI", Font.BOLD, 20));
         titleLabel.setForeground(TEXT_PRIMARY);
-        titleLabel.setBorder(new EmptyBorder(0, 0, 20, 0));
-        panel.add(titleLabel, BorderLayout.NORTH);
+        headerPanel.add(titleLabel, BorderLayout.WEST);
+
+        // Ranges other than all time are answered by the in-memory engine, so the combo is
+        // enabled once it has loaded
+        JComboBox<String> rangeCombo = new JComboBox<>();
+        for (AnalyticsRange range : AnalyticsRange.values()) {
+            rangeCombo.addItem(range.getLabel());
+        }
+        rangeCombo.setSelectedItem(analyticsRange.getLabel());
+        rangeCombo.setEnabled(analytics != null);
+        styleComboBox(rangeCombo);
+        rangeCombo.addActionListener(e -> {
+            EdtMonitor.tag("scope analytics");
+            analyticsRange = AnalyticsRange.of((String) rangeCombo.getSelectedItem());
+            try (DatasetBatch batch = new DatasetBatch()) {
+                updateAnalytics(batch);
+            }
+        });
+        analyticsRangeCombo = rangeCombo;
+        headerPanel.add(rangeCombo, BorderLayout.EAST);
+        panel.add(headerPanel, BorderLayout.NORTH);
+        if (analytics == null && analyticsPending == null) {
+            loadAnalytics();
+        }
 
         // Analytics tabs
         JTabbedPane tabbedPane = new JTabbedPane();
@@ -1038,10 +1603,9 @@ public class PersonalFinanceManager extends JFrame {
         JPanel expensePanel = new JPanel(new BorderLayout());
         expensePanel.setBackground(BACKGROUND);
 
-        DefaultCategoryDataset expenseDataset = new DefaultCategoryDataset();
-        Map<String, Double> expensesByCategory = dbManager.getExpensesByCategory(currentUser.getId());
-        expensesByCategory.forEach((category, amount) ->
-                expenseDataset.addValue(amount, "Expenses", category));
+        expenseDataset = new DefaultCategoryDataset();
+        summary.getExpensesByCategory().forEach((category, amount) ->
+                expenseDataset.addValue(amount.toDouble(), "Expenses", category));
 
         JFreeChart expenseChart = ChartFactory.createBarChart(
                 "Expenses by Category",
@@ -1067,9 +1631,9 @@ public class PersonalFinanceManager extends JFrame {
         JPanel comparisonPanel = new JPanel(new BorderLayout());
         comparisonPanel.setBackground(BACKGROUND);
 
-        DefaultCategoryDataset comparisonDataset = new DefaultCategoryDataset();
-        comparisonDataset.addValue(dbManager.getTotalIncome(currentUser.getId()), "Income", "Total");
-        comparisonDataset.addValue(dbManager.getTotalExpenses(currentUser.getId()), "Expenses", "Total");
+        comparisonDataset = new DefaultCategoryDataset();
+        comparisonDataset.addValue(summary.getTotalIncome().toDouble(), "Income", "Total");
+        comparisonDataset.addValue(summary.getTotalExpenses().toDouble(), "Expenses", "Total");
 
         JFreeChart comparisonChart = ChartFactory.createBarChart(
                 "Income vs Expenses",
@@ -1092,29 +1656,74 @@ public class PersonalFinanceManager extends JFrame {
         ChartPanel comparisonChartPanel = new ChartPanel(comparisonChart);
         comparisonPanel.add(comparisonChartPanel, BorderLayout.CENTER);
 
-        // Monthly trends tab
+        // Spending trends tab; grouping and category need the in-memory engine
         JPanel trendsPanel = new JPanel(new BorderLayout());
         trendsPanel.setBackground(BACKGROUND);
 
-        DefaultCategoryDataset trendsDataset = new DefaultCategoryDataset();
-        Map<String, Double> monthlyExpenses = dbManager.getMonthlyExpenses(currentUser.getId());
-        monthlyExpenses.forEach((month, amount) ->
-                trendsDataset.addValue(amount, "Expenses", month));
+        JPanel trendsToolbar = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 0));
+        trendsToolbar.setBackground(BACKGROUND);
+        trendsToolbar.setBorder(new EmptyBorder(0, 0, 10, 0));
+        JComboBox<String> granularityCombo = new JComboBox<>();
+        for (TimeSeries.Granularity granularity : TimeSeries.Granularity.values()) {
+            granularityCombo.addItem(granularity.getLabel());
+        }
+        granularityCombo.setSelectedItem(trendsGranularity.getLabel());
+        JComboBox<String> trendsCategories = new JComboBox<>(new String[]{
+                "All", "Food", "Transportation", "Entertainment", "Utilities",
+                "Healthcare", "Shopping", "Education", "Travel", "Investment", "Other"
+        });
+        trendsCategories.setSelectedItem(trendsCategory == null ? "All" : trendsCategory);
+        for (JComboBox<String> combo : Arrays.asList(granularityCombo, trendsCategories)) {
+            combo.setEnabled(analytics != null);
+            styleComboBox(combo);
+            combo.addActionListener(e -> {
+                EdtMonitor.tag("zoom trends");
+                trendsGranularity = TimeSeries.Granularity.of((String) granularityCombo.getSelectedItem());
+                String category = (String) trendsCategories.getSelectedItem();
+                trendsCategory = "All".equals(category) ? null : category;
+                try (DatasetBatch batch = new DatasetBatch()) {
+                    updateTrends(batch);
+                }
+            });
+        }
+        trendsGranularityCombo = granularityCombo;
+        trendsCategoryCombo = trendsCategories;
+        for (String label : new String[]{"Group by:", "Category:"}) {
+            JLabel labelComponent = new JLabel(label);
+            labelComponent.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+            labelComponent.setForeground(TEXT_PRIMARY);
+            trendsToolbar.add(labelComponent);
+            trendsToolbar.add(label.equals("Group by:") ? granularityCombo : trendsCategories);
+        }
+        trendsPanel.add(trendsToolbar, BorderLayout.NORTH);
+
+        trendsDataset = new DefaultCategoryDataset();
+        summary.getMonthlyExpenses().forEach((month, amount) ->
+                trendsDataset.addValue(amount.toDouble(), "Expenses", month));
 
         JFreeChart trendsChart = ChartFactory.createLineChart(
-                "Monthly Spending Trends",
-                "Month",
+                "Spending Trends",
+                trendsGranularity.getLabel(),
                 "Amount",
                 trendsDataset,
                 PlotOrientation.VERTICAL,
                 true, true, false
         );
 
-        CategoryPlot trendsPlot = trendsChart.getCategoryPlot();
+        trendsPlot = trendsChart.getCategoryPlot();
         trendsPlot.getRenderer().setSeriesPaint(0, PRIMARY_COLOR);
         trendsPlot.setBackgroundPaint(CARD_BACKGROUND);
         trendsPlot.setRangeGridlinePaint(DIVIDER_COLOR);
 
+        forecastDataset = new DefaultCategoryDataset();
+        LineAndShapeRenderer forecastRenderer = new LineAndShapeRenderer(true, false);
+        forecastRenderer.setSeriesPaint(0, PRIMARY_COLOR);
+        forecastRenderer.setSeriesStroke(0, new BasicStroke(1.0f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER,
+                10.0f, new float[]{6.0f, 4.0f}, 0.0f));
+        trendsPlot.setDataset(1, forecastDataset);
+        trendsPlot.setRenderer(1, forecastRenderer);
+        loadForecast();
+
         trendsChart.setBackgroundPaint(CARD_BACKGROUND);
         trendsChart.getTitle().setFont(new Font("Segoe UI", Font.BOLD, 16));
 
@@ -1123,7 +1732,7 @@ public class PersonalFinanceManager extends JFrame {
 
         tabbedPane.addTab("Expense Analysis", expensePanel);
         tabbedPane.addTab("Income vs Expenses", comparisonPanel);
-        tabbedPane.addTab("Monthly Trends", trendsPanel);
+        tabbedPane.addTab("Spending Trends", trendsPanel);
 
         panel.add(tabbedPane, BorderLayout.CENTER);
         return panel;
@@ -1178,6 +1787,13 @@ public class PersonalFinanceManager extends JFrame {
         }
     }
 
+    // Matches the centered cells styleTable installs
+    private FormattedCellRenderer styleRenderer(FormattedCellRenderer renderer) {
+        renderer.setBackground(CARD_BACKGROUND);
+        renderer.setForeground(TEXT_PRIMARY);
+        return renderer;
+    }
+
     private void styleComboBox(JComboBox<?> comboBox) {
         comboBox.setBackground(CARD_BACKGROUND);
         comboBox.setForeground(TEXT_PRIMARY);
@@ -1266,14 +1882,30 @@ public class PersonalFinanceManager extends JFrame {
     }
 
     private void logout() {
+        budgetRollover.stop();
+        dbManager.getEvents().unsubscribe(panelUpdater);
+        dbManager.getEvents().unsubscribe(transactionTableModel);
+        liveSummary = null;
+        analytics = null;
+        analyticsPending = null;
+        forecast = null;
+        forecastLoading = false;
+        forecastStale = false;
+        analyticsRange = AnalyticsRange.ALL_TIME;
+        trendsGranularity = TimeSeries.Granularity.MONTH;
+        trendsCategory = null;
         currentUser = null;
+        loginStartedAt = 0;
         animateTransition(this::showLoginScreen);
     }
 
     // Inner classes
+    @SuppressWarnings("serial") // Never serialized
     private class LoginPanel extends JPanel {
         private JTextField usernameField;
         private JPasswordField passwordField;
+        private JButton loginBtn;
+        private JButton signupBtn;
 
         public LoginPanel() {
             setBackground(BACKGROUND);
@@ -1295,7 +1927,7 @@ public class PersonalFinanceManager extends JFrame {
             gbc.anchor = GridBagConstraints.CENTER;
 
             // App icon
-            JLabel iconLabel = new JLabel(new ImageIcon(createAppIcon().getScaledInstance(60, 60, Image.SCALE_SMOOTH)));
+            JLabel iconLabel = new JLabel(new ImageIcon(APP_ICON.join().getScaledInstance(60, 60, Image.SCALE_SMOOTH)));
             gbc.gridx = 0; gbc.gridy = 0;
             gbc.gridwidth = 2;
             card.add(iconLabel, gbc);
@@ -1338,11 +1970,11 @@ public class PersonalFinanceManager extends JFrame {
             JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 15, 0));
             buttonPanel.setBackground(CARD_BACKGROUND);
 
-            JButton loginBtn = new JButton("Login");
+            loginBtn = new JButton("Login");
             loginBtn.addActionListener(this::handleLogin);
             styleButton(loginBtn, SUCCESS_COLOR, true);
 
-            JButton signupBtn = new JButton("Sign Up");
+            signupBtn = new JButton("Sign Up");
             signupBtn.addActionListener(this::handleSignup);
             styleButton(signupBtn, PRIMARY_COLOR, true);
 
@@ -1367,15 +1999,19 @@ public class PersonalFinanceManager extends JFrame {
                 return;
             }
 
-            User user = authManager.authenticate(username, password);
-            if (user != null) {
-                currentUser = user;
-                showMainApplication();
-            } else {
-                JOptionPane.showMessageDialog(PersonalFinanceManager.this,
-                        "Invalid username or password", "Login Failed", JOptionPane.ERROR_MESSAGE);
-                passwordField.setText("");
-            }
+            setBusy(true);
+            loginStartedAt = System.nanoTime();
+            AsyncDataService.onEdt(services.thenCompose(service -> service.authenticate(username, password)), user -> {
+                setBusy(false);
+                if (user != null) {
+                    currentUser = user;
+                    showMainApplication();
+                } else {
+                    JOptionPane.showMessageDialog(PersonalFinanceManager.this,
+                            "Invalid username or password", "Login Failed", JOptionPane.ERROR_MESSAGE);
+                    passwordField.setText("");
+                }
+            }, () -> setBusy(false));
         }
 
         private void handleSignup(ActionEvent e) {
@@ -1394,14 +2030,25 @@ public class PersonalFinanceManager extends JFrame {
                 return;
             }
 
-            if (authManager.createUser(username, password)) {
-                JOptionPane.showMessageDialog(PersonalFinanceManager.this,
-                        "Account created successfully! Please login.", "Success", JOptionPane.INFORMATION_MESSAGE);
-                passwordField.setText("");
-            } else {
-                JOptionPane.showMessageDialog(PersonalFinanceManager.this,
-                        "Username already exists", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            setBusy(true);
+            AsyncDataService.onEdt(services.thenCompose(service -> service.createUser(username, password)), created -> {
+                setBusy(false);
+                if (created) {
+                    JOptionPane.showMessageDialog(PersonalFinanceManager.this,
+                            "Account created successfully! Please login.", "Success", JOptionPane.INFORMATION_MESSAGE);
+                    passwordField.setText("");
+                } else {
+                    JOptionPane.showMessageDialog(PersonalFinanceManager.this,
+                            "Username already exists", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }, () -> setBusy(false));
+        }
+
+        // Blocks double submits while a login or signup is running in the background
+        private void setBusy(boolean busy) {
+            loginBtn.setEnabled(!busy);
+            signupBtn.setEnabled(!busy);
+            setCursor(busy ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : null);
         }
 
         private void styleTextField(JTextField field) {
@@ -1415,6 +2062,7 @@ public class PersonalFinanceManager extends JFrame {
         }
     }
 
+    @SuppressWarnings("serial") // Never serialized
     private static class ActionButtonRenderer extends JPanel implements TableCellRenderer {
         private final JButton editBtn;
         private final JButton deleteBtn;
@@ -1452,6 +2100,7 @@ public class PersonalFinanceManager extends JFrame {
         }
     }
 
+    @SuppressWarnings("serial") // Never serialized
     private class ActionButtonEditor extends DefaultCellEditor {
         private final JPanel panel;
         private int currentRow;
@@ -1496,16 +2145,26 @@ public class PersonalFinanceManager extends JFrame {
         }
 
         private void editTransaction() {
-            DefaultTableModel model = (DefaultTableModel) table.getModel();
-            int transactionId = (Integer) model.getValueAt(currentRow, 0);
-
-            Transaction transaction = dbManager.getTransactionById(transactionId);
-            if (transaction == null) {
+            TransactionTableModel model = (TransactionTableModel) table.getModel();
+            Transaction row = model.getTransactionAt(currentRow);
+            stopCellEditing();
+            if (row == null) {
                 JOptionPane.showMessageDialog(PersonalFinanceManager.this,
                         "Transaction not found", "Error", JOptionPane.ERROR_MESSAGE);
                 return;
             }
 
+            AsyncDataService.onEdt(dataService.getTransactionById(row.getId()), transaction -> {
+                if (transaction == null) {
+                    JOptionPane.showMessageDialog(PersonalFinanceManager.this,
+                            "Transaction not found", "Error", JOptionPane.ERROR_MESSAGE);
+                } else {
+                    showEditDialog(transaction);
+                }
+            });
+        }
+
+        private void showEditDialog(Transaction transaction) {
             JDialog dialog = new JDialog(PersonalFinanceManager.this, "Edit Transaction", true);
             dialog.setSize(450, 400);
             dialog.setLocationRelativeTo(PersonalFinanceManager.this);
@@ -1528,7 +2187,7 @@ public class PersonalFinanceManager extends JFrame {
             descField.setText(transaction.getDescription());
 
             JTextField amountField = createStyledTextField();
-            amountField.setText(String.format("%.2f", transaction.getAmount()));
+            amountField.setText(transaction.getAmount().toPlainString());
 
             JComboBox<String> categoryCombo = new JComboBox<>(new String[]{
                     "Food", "Transportation", "Entertainment", "Utilities", "Healthcare",
@@ -1553,9 +2212,10 @@ public class PersonalFinanceManager extends JFrame {
 
             JButton saveBtn = new JButton("Save");
             saveBtn.addActionListener(e -> {
+                EdtMonitor.tag("save transaction");
                 try {
                     String desc = descField.getText().trim();
-                    double amount = Double.parseDouble(amountField.getText().trim());
+                    Money amount = Money.parse(amountField.getText());
                     String category = (String) categoryCombo.getSelectedItem();
                     String type = (String) typeCombo.getSelectedItem();
 
@@ -1575,19 +2235,18 @@ public class PersonalFinanceManager extends JFrame {
                             type
                     );
 
-                    if (dbManager.updateTransaction(updatedTransaction)) {
-                        model.setValueAt(desc, currentRow, 2);
-                        model.setValueAt(category, currentRow, 3);
-                        model.setValueAt(String.format("%.2f FCFA", amount), currentRow, 4);
-                        model.setValueAt(type, currentRow, 5);
-                        refreshAllData();
-                        dialog.dispose();
-                        JOptionPane.showMessageDialog(dialog,
-                                "Transaction updated successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
-                    } else {
-                        JOptionPane.showMessageDialog(dialog,
-                                "Failed to update transaction", "Error", JOptionPane.ERROR_MESSAGE);
-                    }
+                    saveBtn.setEnabled(false);
+                    AsyncDataService.onEdt(dataService.updateTransaction(updatedTransaction), updated -> {
+                        saveBtn.setEnabled(true);
+                        if (updated) {
+                            dialog.dispose();
+                            JOptionPane.showMessageDialog(dialog,
+                                    "Transaction updated successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
+                        } else {
+                            JOptionPane.showMessageDialog(dialog,
+                                    "Failed to update transaction", "Error", JOptionPane.ERROR_MESSAGE);
+                        }
+                    }, () -> saveBtn.setEnabled(true));
                 } catch (NumberFormatException ex) {
                     JOptionPane.showMessageDialog(dialog,
                             "Please enter a valid amount", "Error", JOptionPane.ERROR_MESSAGE);
@@ -1608,7 +2267,6 @@ public class PersonalFinanceManager extends JFrame {
             dialog.add(buttonPanel, gbc);
 
             dialog.setVisible(true);
-            stopCellEditing();
         }
 
         private void deleteTransaction() {
@@ -1618,18 +2276,23 @@ public class PersonalFinanceManager extends JFrame {
                     "Confirm Delete", JOptionPane.YES_NO_OPTION);
 
             if (result == JOptionPane.YES_OPTION) {
-                DefaultTableModel model = (DefaultTableModel) table.getModel();
-                int transactionId = (Integer) model.getValueAt(currentRow, 0);
+                TransactionTableModel model = (TransactionTableModel) table.getModel();
+                Transaction row = model.getTransactionAt(currentRow);
 
-                if (dbManager.deleteTransaction(transactionId)) {
-                    model.removeRow(currentRow);
-                    refreshAllData();
-                    JOptionPane.showMessageDialog(PersonalFinanceManager.this,
-                            "Transaction deleted successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
-                } else {
+                if (row == null) {
                     JOptionPane.showMessageDialog(PersonalFinanceManager.this,
                             "Failed to delete transaction", "Error", JOptionPane.ERROR_MESSAGE);
+                    return;
                 }
+                AsyncDataService.onEdt(dataService.deleteTransaction(row.getId()), deleted -> {
+                    if (deleted) {
+                        JOptionPane.showMessageDialog(PersonalFinanceManager.this,
+                                "Transaction deleted successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
+                    } else {
+                        JOptionPane.showMessageDialog(PersonalFinanceManager.this,
+                                "Failed to delete transaction", "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                });
             }
         }
 
@@ -1639,6 +2302,12 @@ public class PersonalFinanceManager extends JFrame {
         }
     }
 
+    // Blank or placeholder text leaves that end of the range open
+    private static LocalDate parseFilterDate(String text, String placeholder) {
+        String value = text.trim();
+        return value.isEmpty() || value.equals(placeholder) ? null : LocalDate.parse(value);
+    }
+
     private void showFilterDialog() {
         JDialog dialog = new JDialog(this, "Filter Transactions", true);
         dialog.setSize(350, 300);
@@ -1667,6 +2336,10 @@ public class PersonalFinanceManager extends JFrame {
         styleComboBox(typeCombo);
         styleComboBox(categoryCombo);
 
+        TransactionQuery current = transactionTableModel.getQuery();
+        typeCombo.setSelectedItem(current.getType() == null ? "All" : current.getType());
+        categoryCombo.setSelectedItem(current.getCategory() == null ? "All" : current.getCategory());
+
         addFormField(dialog, gbc, 1, "Type:", typeCombo);
         addFormField(dialog, gbc, 2, "Category:", categoryCombo);
 
@@ -1675,9 +2348,9 @@ public class PersonalFinanceManager extends JFrame {
         datePanel.setBackground(BACKGROUND);
 
         JTextField startDateField = createStyledTextField();
-        startDateField.setText("Start Date");
+        startDateField.setText(current.getFrom() == null ? "Start Date" : current.getFrom().toString());
         JTextField endDateField = createStyledTextField();
-        endDateField.setText("End Date");
+        endDateField.setText(current.getTo() == null ? "End Date" : current.getTo().toString());
 
         datePanel.add(startDateField);
         datePanel.add(endDateField);
@@ -1694,7 +2367,22 @@ public class PersonalFinanceManager extends JFrame {
 
         JButton applyBtn = new JButton("Apply");
         applyBtn.addActionListener(e -> {
-            // Apply filter logic here
+            LocalDate from;
+            LocalDate to;
+            try {
+                from = parseFilterDate(startDateField.getText(), "Start Date");
+                to = parseFilterDate(endDateField.getText(), "End Date");
+            } catch (DateTimeParseException ex) {
+                JOptionPane.showMessageDialog(dialog,
+                        "Please enter dates as yyyy-MM-dd", "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            String type = (String) typeCombo.getSelectedItem();
+            String category = (String) categoryCombo.getSelectedItem();
+            transactionTableModel.setQuery(current
+                    .withType("All".equals(type) ? null : type)
+                    .withCategory("All".equals(category) ? null : category)
+                    .withDateRange(from, to));
             dialog.dispose();
         });
         styleButton(applyBtn, PRIMARY_COLOR, true);
@@ -1714,460 +2402,3 @@ public class PersonalFinanceManager extends JFrame {
         dialog.setVisible(true);
     }
 }
-
-class DatabaseManager {
-    private static final String DB_URL = "jdbc:sqlite:finance_manager.db";
-    private Connection connection;
-
-    public DatabaseManager() {
-        initializeDatabase();
-    }
-
-    private void initializeDatabase() {
-        try {
-            connection = DriverManager.getConnection(DB_URL);
-            createTables();
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-    }
-
-    private void createTables() throws SQLException {
-        String createUsers = "CREATE TABLE IF NOT EXISTS users (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "username TEXT UNIQUE NOT NULL, " +
-                "password_hash TEXT NOT NULL, " +
-                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)";
-
-        String createTransactions = "CREATE TABLE IF NOT EXISTS transactions (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "user_id INTEGER NOT NULL, " +
-                "date TIMESTAMP NOT NULL, " +
-                "description TEXT NOT NULL, " +
-                "category TEXT NOT NULL, " +
-                "amount REAL NOT NULL, " +
-                "type TEXT NOT NULL, " +
-                "FOREIGN KEY (user_id) REFERENCES users (id))";
-
-        String createBudgets = "CREATE TABLE IF NOT EXISTS budgets (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "user_id INTEGER NOT NULL, " +
-                "category TEXT NOT NULL, " +
-                "amount REAL NOT NULL, " +
-                "FOREIGN KEY (user_id) REFERENCES users (id), " +
-                "UNIQUE(user_id, category))";
-
-        try (Statement stmt = connection.createStatement()) {
-            stmt.execute(createUsers);
-            stmt.execute(createTransactions);
-            stmt.execute(createBudgets);
-        }
-    }
-
-    public boolean createUser(String username, String passwordHash) {
-        String sql = "INSERT INTO users (username, password_hash) VALUES (?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, username);
-            pstmt.setString(2, passwordHash);
-            pstmt.executeUpdate();
-            return true;
-        } catch (SQLException e) {
-            return false;
-        }
-    }
-
-    public User getUser(String username) {
-        String sql = "SELECT * FROM users WHERE username = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, username);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return new User(
-                        rs.getInt("id"),
-                        rs.getString("username"),
-                        rs.getString("password_hash")
-                );
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return null;
-    }
-
-    public boolean addTransaction(Transaction transaction) {
-        String sql = "INSERT INTO transactions (user_id, date, description, category, amount, type) " +
-                "VALUES (?, ?, ?, ?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, transaction.getUserId());
-            pstmt.setString(2, transaction.getDate().toString());
-            pstmt.setString(3, transaction.getDescription());
-            pstmt.setString(4, transaction.getCategory());
-            pstmt.setDouble(5, transaction.getAmount());
-            pstmt.setString(6, transaction.getType());
-            pstmt.executeUpdate();
-            return true;
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return false;
-        }
-    }
-
-    public boolean updateTransaction(Transaction transaction) {
-        String sql = "UPDATE transactions SET description = ?, category = ?, amount = ?, type = ? " +
-                "WHERE id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, transaction.getDescription());
-            pstmt.setString(2, transaction.getCategory());
-            pstmt.setDouble(3, transaction.getAmount());
-            pstmt.setString(4, transaction.getType());
-            pstmt.setInt(5, transaction.getId());
-            return pstmt.executeUpdate() > 0;
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return false;
-        }
-    }
-
-    public Transaction getTransactionById(int id) {
-        String sql = "SELECT * FROM transactions WHERE id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, id);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return new Transaction(
-                        rs.getInt("id"),
-                        rs.getInt("user_id"),
-                        LocalDateTime.parse(rs.getString("date")),
-                        rs.getString("description"),
-                        rs.getString("category"),
-                        rs.getDouble("amount"),
-                        rs.getString("type")
-                );
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return null;
-    }
-
-    public List<Transaction> getAllTransactions(int userId) {
-        List<Transaction> transactions = new ArrayList<>();
-        String sql = "SELECT * FROM transactions WHERE user_id = ? ORDER BY date DESC";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, userId);
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                transactions.add(new Transaction(
-                        rs.getInt("id"),
-                        rs.getInt("user_id"),
-                        LocalDateTime.parse(rs.getString("date")),
-                        rs.getString("description"),
-                        rs.getString("category"),
-                        rs.getDouble("amount"),
-                        rs.getString("type")
-                ));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return transactions;
-    }
-
-    public List<Transaction> getRecentTransactions(int userId, int limit) {
-        List<Transaction> transactions = new ArrayList<>();
-        String sql = "SELECT * FROM transactions WHERE user_id = ? ORDER BY date DESC LIMIT ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, userId);
-            pstmt.setInt(2, limit);
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                transactions.add(new Transaction(
-                        rs.getInt("id"),
-                        rs.getInt("user_id"),
-                        LocalDateTime.parse(rs.getString("date")),
-                        rs.getString("description"),
-                        rs.getString("category"),
-                        rs.getDouble("amount"),
-                        rs.getString("type")
-                ));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return transactions;
-    }
-
-    public boolean deleteTransaction(int transactionId) {
-        String sql = "DELETE FROM transactions WHERE id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, transactionId);
-            return pstmt.executeUpdate() > 0;
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return false;
-        }
-    }
-
-    public boolean addBudget(Budget budget) {
-        String sql = "INSERT OR REPLACE INTO budgets (user_id, category, amount) VALUES (?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, budget.getUserId());
-            pstmt.setString(2, budget.getCategory());
-            pstmt.setDouble(3, budget.getAmount());
-            pstmt.executeUpdate();
-            return true;
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return false;
-        }
-    }
-
-    public List<Budget> getAllBudgets(int userId) {
-        List<Budget> budgets = new ArrayList<>();
-        String sql = "SELECT * FROM budgets WHERE user_id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, userId);
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                budgets.add(new Budget(
-                        rs.getInt("id"),
-                        rs.getInt("user_id"),
-                        rs.getString("category"),
-                        rs.getDouble("amount")
-                ));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return budgets;
-    }
-
-    public double getTotalIncome(int userId) {
-        String sql = "SELECT SUM(amount) FROM transactions WHERE user_id = ? AND type = 'Income'";
-        return getSumFromQuery(sql, userId);
-    }
-
-    public double getTotalExpenses(int userId) {
-        String sql = "SELECT SUM(amount) FROM transactions WHERE user_id = ? AND type = 'Expense'";
-        return getSumFromQuery(sql, userId);
-    }
-
-    public int getTransactionCount(int userId) {
-        String sql = "SELECT COUNT(*) FROM transactions WHERE user_id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, userId);
-            ResultSet rs = pstmt.executeQuery();
-            return rs.next() ? rs.getInt(1) : 0;
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return 0;
-        }
-    }
-
-    public double getSpentInCategory(int userId, String category) {
-        String sql = "SELECT SUM(amount) FROM transactions WHERE user_id = ? AND category = ? AND type = 'Expense'";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, userId);
-            pstmt.setString(2, category);
-            ResultSet rs = pstmt.executeQuery();
-            return rs.next() ? rs.getDouble(1) : 0;
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return 0;
-        }
-    }
-
-    public Map<String, Double> getExpensesByCategory(int userId) {
-        Map<String, Double> categoryExpenses = new LinkedHashMap<>();
-        String sql = "SELECT category, SUM(amount) as total FROM transactions " +
-                "WHERE user_id = ? AND type = 'Expense' GROUP BY category";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, userId);
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                categoryExpenses.put(rs.getString("category"), rs.getDouble("total"));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return categoryExpenses;
-    }
-    public Map<String, Double> getMonthlyExpenses(int userId) {
-        Map<String, Double> monthlyExpenses = new LinkedHashMap<>();
-        String sql = "SELECT strftime('%Y-%m', date) as month, SUM(amount) as total " +
-                "FROM transactions WHERE user_id = ? AND type = 'Expense' " +
-                "GROUP BY month ORDER BY month";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, userId);
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                monthlyExpenses.put(rs.getString("month"), rs.getDouble("total"));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return monthlyExpenses;
-    }
-
-    private double getSumFromQuery(String sql, int userId) {
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, userId);
-            ResultSet rs = pstmt.executeQuery();
-            return rs.next() ? rs.getDouble(1) : 0;
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return 0;
-        }
-    }
-}
-
-class AuthenticationManager {
-    private DatabaseManager dbManager;
-
-    public AuthenticationManager(DatabaseManager dbManager) {
-        this.dbManager = dbManager;
-    }
-
-    public User authenticate(String username, String password) {
-        User user = dbManager.getUser(username);
-        if (user != null && verifyPassword(password, user.getPasswordHash())) {
-            return user;
-        }
-        return null;
-    }
-
-    public boolean createUser(String username, String password) {
-        if (dbManager.getUser(username) != null) {
-            return false; // Username already exists
-        }
-        String passwordHash = hashPassword(password);
-        return dbManager.createUser(username, passwordHash);
-    }
-
-    private String hashPassword(String password) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(password.getBytes(StandardCharsets.UTF_8));
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) hexString.append('0');
-                hexString.append(hex);
-            }
-            return hexString.toString();
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Failed to hash password", e);
-        }
-    }
-
-    private boolean verifyPassword(String password, String storedHash) {
-        return hashPassword(password).equals(storedHash);
-    }
-}
-
-class User {
-    private int id;
-    private String username;
-    private String passwordHash;
-    public User(int id, String username, String passwordHash) {
-        this.id = id;
-        this.username = username;
-        this.passwordHash = passwordHash;
-    }
-
-    public int getId() {
-        return id;
-    }
-
-    public String getUsername() {
-        return username;
-    }
-
-    public String getPasswordHash() {
-        return passwordHash;
-    }
-}
-
-class Transaction {
-    private int id;
-    private int userId;
-    private LocalDateTime date;
-    private String description;
-    private String category;
-    private double amount;
-    private String type;
-    public Transaction(int id, int userId, LocalDateTime date, String description,
-                       String category, double amount, String type) {
-        this.id = id;
-        this.userId = userId;
-        this.date = date;
-        this.description = description;
-        this.category = category;
-        this.amount = amount;
-        this.type = type;
-    }
-
-    public int getId() {
-        return id;
-    }
-
-    public int getUserId() {
-        return userId;
-    }
-
-    public LocalDateTime getDate() {
-        return date;
-    }
-
-    public String getDescription() {
-        return description;
-    }
-
-    public String getCategory() {
-        return category;
-    }
-
-    public double getAmount() {
-        return amount;
-    }
-
-    public String getType() {
-        return type;
-    }
-}
-
-class Budget {
-    private int id;
-    private int userId;
-    private String category;
-    private double amount;
-    public Budget(int id, int userId, String category, double amount) {
-        this.id = id;
-        this.userId = userId;
-        this.category = category;
-        this.amount = amount;
-    }
-
-    public int getId() {
-        return id;
-    }
-
-    public int getUserId() {
-        return userId;
-    }
-
-    public String getCategory() {
-        return category;
-    }
-
-    public double getAmount() {
-        return amount;
-    }
-
-public static void main(String[] args) {
-    SwingUtilities.invokeLater(() -> {
-        PersonalFinanceManager app = new PersonalFinanceManager();
-        app.setVisible(true);
-    });
-}
-}
\ No newline at end of file
@@ -0,0 +1,113 @@
+package com.financemanager;
+
+import java.sql.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+// Fixed set of read-only connections, each with its own statement cache.
+// With the database in WAL mode these can read while the writer connection commits.
+// Once closed, acquire() fails and a connection still in use is closed on its release.
+class ReadConnectionPool implements AutoCloseable {
+    private static final int SQLITE_OPEN_READONLY = 1;
+    // How long close() waits for reads in flight, as long as a read waits on a lock
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+    private final List<StatementCache> all = new ArrayList<>();
+    // Guarded by this, as are inUse and closed
+    private final Deque<StatementCache> idle = new ArrayDeque<>();
+    private int inUse;
+    private boolean closed;
+
+    public ReadConnectionPool(String url, int size, int statementCacheSize) throws SQLException {
+        Properties props = new Properties();
+        props.setProperty("open_mode", String.valueOf(SQLITE_OPEN_READONLY));
+        try {
+            for (int i = 0; i < size; i++) {
+                Connection connection = DriverManager.getConnection(url, props);
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute("PRAGMA busy_timeout = 5000");
+                }
+                StatementCache statements = new StatementCache(connection, statementCacheSize);
+                all.add(statements);
+                idle.add(statements);
+            }
+        } catch (SQLException e) {
+            close();
+            throw e;
+        }
+    }
+
+    public synchronized StatementCache acquire() throws SQLException {
+        try {
+            while (!closed && idle.isEmpty()) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a read connection", e);
+        }
+        if (closed) {
+            throw new SQLException("Read connection pool is closed");
+        }
+        inUse++;
+        return idle.poll();
+    }
+
+    public synchronized void release(StatementCache statements) {
+        inUse--;
+        if (closed) {
+            closeConnection(statements);
+        } else {
+            idle.add(statements);
+        }
+        notifyAll();
+    }
+
+    // Records the SQL prepared on every connection of the pool; see StatementCache.record
+    public void record(Set<String> sqlTexts) {
+        for (StatementCache statements : all) {
+            statements.record(sqlTexts);
+        }
+    }
+
+    public long getHitCount() {
+        return all.stream().mapToLong(StatementCache::getHitCount).sum();
+    }
+
+    public long getMissCount() {
+        return all.stream().mapToLong(StatementCache::getMissCount).sum();
+    }
+
+    // Closes the idle connections and waits for reads in flight, whose connections release()
+    // closes; one still running after CLOSE_TIMEOUT_MILLIS is left to it
+    @Override
+    public synchronized void close() {
+        closed = true;
+        notifyAll();
+        long deadline = System.currentTimeMillis() + CLOSE_TIMEOUT_MILLIS;
+        try {
+            for (long left = CLOSE_TIMEOUT_MILLIS; inUse > 0 && left > 0; left = deadline - System.currentTimeMillis()) {
+                wait(left);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (StatementCache statements : idle) {
+            closeConnection(statements);
+        }
+        idle.clear();
+    }
+
+    private static void closeConnection(StatementCache statements) {
+        statements.close();
+        try {
+            statements.getConnection().close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.financemanager;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Applies ordered, versioned schema changes and records them in schema_version
+class SchemaMigrator {
+    interface Step {
+        void apply(Connection connection) throws SQLException;
+    }
+
+    private static class Migration {
+        private final int version;
+        private final String description;
+        private final Step step;
+
+        Migration(int version, String description, Step step) {
+            this.version = version;
+            this.description = description;
+            this.step = step;
+        }
+    }
+
+    private final List<Migration> migrations = new ArrayList<>();
+
+    public SchemaMigrator add(int version, String description, Step step) {
+        if (!migrations.isEmpty() && migrations.get(migrations.size() - 1).version >= version) {
+            throw new IllegalArgumentException("Migration versions must be increasing: " + version);
+        }
+        migrations.add(new Migration(version, description, step));
+        return this;
+    }
+
+    public SchemaMigrator add(int version, String description, String... statements) {
+        return add(version, description, connection -> {
+            try (Statement stmt = connection.createStatement()) {
+                for (String sql : statements) {
+                    stmt.execute(sql);
+                }
+            }
+        });
+    }
+
+    // Recreates a table with a new definition, copying shared columns (optionally converted)
+    // and restoring its indexes and triggers. createSql takes the new table name as %s.
+    static void rebuildTable(Connection connection, String table, String createSql,
+                             Map<String, String> conversions) throws SQLException {
+        String rebuilt = table + "_rebuild";
+        List<String> dependents = new ArrayList<>();
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "SELECT sql FROM sqlite_master WHERE tbl_name = ? AND type IN ('index', 'trigger') " +
+                        "AND sql IS NOT NULL ORDER BY type")) {
+            pstmt.setString(1, table);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    dependents.add(rs.getString(1));
+                }
+            }
+        }
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute(String.format(createSql, rebuilt));
+            List<String> oldColumns = columnsOf(connection, table);
+            List<String> targets = new ArrayList<>();
+            List<String> sources = new ArrayList<>();
+            for (String column : columnsOf(connection, rebuilt)) {
+                if (oldColumns.contains(column)) {
+                    targets.add(column);
+                    sources.add(conversions.getOrDefault(column, column));
+                }
+            }
+            stmt.execute("INSERT INTO " + rebuilt + " (" + String.join(", ", targets) + ") " +
+                    "SELECT " + String.join(", ", sources) + " FROM " + table);
+            stmt.execute("DROP TABLE " + table);
+            stmt.execute("ALTER TABLE " + rebuilt + " RENAME TO " + table);
+            for (String sql : dependents) {
+                stmt.execute(sql);
+            }
+        }
+    }
+
+    private static List<String> columnsOf(Connection connection, String table) throws SQLException {
+        List<String> columns = new ArrayList<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while (rs.next()) {
+                columns.add(rs.getString("name"));
+            }
+        }
+        return columns;
+    }
+
+    public int getLatestVersion() {
+        return migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).version;
+    }
+
+    public int getCurrentVersion(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MAX(version) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    // Runs every pending migration in its own transaction, returns the resulting version
+    public int migrate(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS schema_version (" +
+                    "version INTEGER PRIMARY KEY, " +
+                    "description TEXT NOT NULL, " +
+                    "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+        }
+
+        int current = getCurrentVersion(connection);
+        boolean autoCommit = connection.getAutoCommit();
+        try {
+            connection.setAutoCommit(false);
+            for (Migration migration : migrations) {
+                if (migration.version <= current) {
+                    continue;
+                }
+                try {
+                    migration.step.apply(connection);
+                    try (PreparedStatement pstmt = connection.prepareStatement(
+                            "INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+                        pstmt.setInt(1, migration.version);
+                        pstmt.setString(2, migration.description);
+                        pstmt.executeUpdate();
+                    }
+                    connection.commit();
+                    current = migration.version;
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw new SQLException("Migration " + migration.version + " (" +
+                            migration.description + ") failed", e);
+                }
+            }
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        return current;
+    }
+}
@@ -0,0 +1,177 @@
+package com.financemanager;
+
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+// Projected monthly spending per category for the next HORIZON months, starting with the
+// current one. Each category gets additive Holt-Winters smoothing (level, damped trend and a
+// twelve-month season) over its completed months; with less than two years of history the
+// season is dropped, and with under three months the projection is the mean. Smoothing weights
+// are picked per category by a coarse grid search on one-step-ahead error. Categories are
+// fitted in parallel, and one whose history matches the previous forecast keeps its fit, so a
+// refit after a write usually fits a single category.
+final class SpendingForecast {
+    static final int HORIZON = 6;
+    // Completed months fitted; older spending says little about the next half year and
+    // bounds the cost of long histories
+    static final int HISTORY_MONTHS = 60;
+    private static final int SEASON = 12;
+    private static final double DAMPING = 0.9;
+    private static final double[] WEIGHTS = {0.1, 0.3, 0.5, 0.7, 0.9};
+
+    private static final class Fit {
+        private final long[] history;
+        private final long[] projection;
+
+        Fit(long[] history, long[] projection) {
+            this.history = history;
+            this.projection = projection;
+        }
+    }
+
+    private final YearMonth month;
+    private final Map<String, Fit> fits;
+    // Spend in the last completed month followed by the projection, over all categories
+    private final long[] total = new long[HORIZON + 1];
+
+    private SpendingForecast(YearMonth month, Map<String, Fit> fits) {
+        this.month = month;
+        this.fits = fits;
+        for (Fit fit : fits.values()) {
+            total[0] += fit.history[HISTORY_MONTHS - 1];
+            for (int h = 0; h < HORIZON; h++) {
+                total[h + 1] += fit.projection[h];
+            }
+        }
+    }
+
+    // histories holds each category's spend over the HISTORY_MONTHS completed months before
+    // month, oldest first
+    static SpendingForecast fit(Map<String, long[]> histories, YearMonth month, SpendingForecast previous) {
+        Map<String, Fit> reusable = previous != null && previous.month.equals(month)
+                ? previous.fits : Collections.emptyMap();
+        Map<String, Fit> fits = histories.entrySet().parallelStream().collect(Collectors.toMap(
+                Map.Entry::getKey,
+                e -> {
+                    Fit fit = reusable.get(e.getKey());
+                    return fit != null && Arrays.equals(fit.history, e.getValue())
+                            ? fit : new Fit(e.getValue(), project(e.getValue()));
+                },
+                (a, b) -> a,
+                TreeMap::new));
+        return new SpendingForecast(month, fits);
+    }
+
+    // First projected month
+    public YearMonth getMonth() {
+        return month;
+    }
+
+    // Spend per month label ("yyyy-MM") for a category, or all categories when category is
+    // null: the last completed month as recorded, then the projected months. Empty for a
+    // category without history.
+    public Map<String, Money> getProjection(String category) {
+        Map<String, Money> projection = new LinkedHashMap<>();
+        Fit fit = category == null ? null : fits.get(category);
+        if (category == null || fit != null) {
+            projection.put(month.minusMonths(1).toString(),
+                    Money.ofMinor(fit == null ? total[0] : fit.history[HISTORY_MONTHS - 1]));
+            for (int h = 0; h < HORIZON; h++) {
+                projection.put(month.plusMonths(h).toString(),
+                        Money.ofMinor(fit == null ? total[h + 1] : fit.projection[h]));
+            }
+        }
+        return projection;
+    }
+
+    // Months before the category's first spend are not part of its history
+    static long[] project(long[] history) {
+        int first = 0;
+        while (first < history.length && history[first] == 0) {
+            first++;
+        }
+        double[] y = new double[history.length - first];
+        for (int t = 0; t < y.length; t++) {
+            y[t] = history[first + t];
+        }
+        double[] forecast = new double[HORIZON];
+        if (y.length < 3) {
+            Arrays.fill(forecast, Arrays.stream(y).average().orElse(0));
+        } else {
+            boolean seasonal = y.length >= 2 * SEASON;
+            double[] gammas = seasonal ? WEIGHTS : new double[]{0};
+            double bestError = Double.POSITIVE_INFINITY;
+            double[] best = null;
+            for (double alpha : WEIGHTS) {
+                for (double beta : WEIGHTS) {
+                    for (double gamma : gammas) {
+                        double error = smooth(y, alpha, beta, gamma, seasonal, null);
+                        if (error < bestError) {
+                            bestError = error;
+                            best = new double[]{alpha, beta, gamma};
+                        }
+                    }
+                }
+            }
+            smooth(y, best[0], best[1], best[2], seasonal, forecast);
+        }
+        long[] projection = new long[HORIZON];
+        for (int h = 0; h < HORIZON; h++) {
+            projection[h] = Math.max(0, Math.round(forecast[h]));
+        }
+        return projection;
+    }
+
+    // Runs the smoothing over y and returns the squared one-step-ahead error; fills forecast
+    // with the months after y when it is not null
+    private static double smooth(double[] y, double alpha, double beta, double gamma, boolean seasonal,
+                                 double[] forecast) {
+        double level;
+        double trend;
+        double[] season = new double[SEASON];
+        int start;
+        if (seasonal) {
+            double firstYear = 0;
+            double secondYear = 0;
+            for (int t = 0; t < SEASON; t++) {
+                firstYear += y[t] / SEASON;
+                secondYear += y[t + SEASON] / SEASON;
+            }
+            level = firstYear;
+            trend = (secondYear - firstYear) / SEASON;
+            for (int t = 0; t < SEASON; t++) {
+                season[t] = y[t] - firstYear;
+            }
+            start = SEASON;
+        } else {
+            level = y[0];
+            trend = y[1] - y[0];
+            start = 1;
+        }
+        double error = 0;
+        for (int t = start; t < y.length; t++) {
+            double s = season[t % SEASON];
+            double residual = y[t] - (level + DAMPING * trend + s);
+            error += residual * residual;
+            double next = alpha * (y[t] - s) + (1 - alpha) * (level + DAMPING * trend);
+            trend = beta * (next - level) + (1 - beta) * DAMPING * trend;
+            if (seasonal) {
+                season[t % SEASON] = gamma * (y[t] - next) + (1 - gamma) * s;
+            }
+            level = next;
+        }
+        if (forecast != null) {
+            double damped = 0;
+            for (int h = 0; h < forecast.length; h++) {
+                damped += Math.pow(DAMPING, h + 1);
+                forecast[h] = level + damped * trend + season[(y.length + h) % SEASON];
+            }
+        }
+        return error;
+    }
+}
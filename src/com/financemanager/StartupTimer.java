@@ -0,0 +1,50 @@
+package com.financemanager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Wall-clock breakdown of startup by phase. Phases run on different threads and overlap, so
+// each is printed with its start and end offset from JVM start (from launch() when the OS
+// does not report the process start time). The report is printed once, when the login screen
+// is showing and the database is ready, whichever comes last.
+final class StartupTimer {
+    private static final long ORIGIN = System.nanoTime();
+    private static final long JVM_TO_ORIGIN_MS = ProcessHandle.current().info().startInstant()
+            .map(started -> Math.max(0, System.currentTimeMillis() - started.toEpochMilli()))
+            .orElse(0L);
+
+    private static final List<String> lines = new ArrayList<>();
+    // "login screen shown" and "database ready"
+    private static int pendingMilestones = 2;
+
+    static long start() {
+        return System.nanoTime();
+    }
+
+    static synchronized void record(String phase, long startedAt) {
+        if (pendingMilestones > 0) {
+            long end = System.nanoTime();
+            lines.add(String.format("  %-22s %6d ms   %6d -> %6d  [%s]", phase, (end - startedAt) / 1_000_000,
+                    offset(startedAt), offset(end), Thread.currentThread().getName()));
+        }
+    }
+
+    static synchronized void milestone(String name) {
+        if (pendingMilestones == 0) {
+            return;
+        }
+        lines.add(String.format("  %-22s %12d ms", name, offset(System.nanoTime())));
+        if (--pendingMilestones == 0) {
+            System.out.printf("Startup timing (ms since JVM start, main entered at %d ms):%n", JVM_TO_ORIGIN_MS);
+            lines.forEach(System.out::println);
+            lines.clear();
+        }
+    }
+
+    private static long offset(long nanos) {
+        return JVM_TO_ORIGIN_MS + (nanos - ORIGIN) / 1_000_000;
+    }
+
+    private StartupTimer() {
+    }
+}
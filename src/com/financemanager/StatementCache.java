@@ -0,0 +1,89 @@
+package com.financemanager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+// Bounded LRU cache of prepared statements for one connection, keyed by SQL text.
+// Statements handed out stay owned by the cache: callers close their ResultSets, never the statement.
+class StatementCache implements AutoCloseable {
+    private final Connection connection;
+    private final int capacity;
+    private final LinkedHashMap<String, PreparedStatement> statements;
+    private long hits;
+    private long misses;
+    // SQL texts prepared while recording, for query plan checks; null when not recording
+    private Set<String> recorded;
+
+    public StatementCache(Connection connection, int capacity) {
+        this.connection = connection;
+        this.capacity = capacity;
+        this.statements = new LinkedHashMap<>(capacity, 0.75f, true);
+    }
+
+    public synchronized PreparedStatement prepare(String sql) throws SQLException {
+        if (recorded != null) {
+            recorded.add(sql);
+        }
+        PreparedStatement pstmt = statements.get(sql);
+        if (pstmt != null && !pstmt.isClosed()) {
+            hits++;
+            pstmt.clearParameters();
+            return pstmt;
+        }
+
+        misses++;
+        pstmt = connection.prepareStatement(sql);
+        statements.put(sql, pstmt);
+        evictOverflow();
+        return pstmt;
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, PreparedStatement>> it = statements.entrySet().iterator();
+        while (statements.size() > capacity && it.hasNext()) {
+            PreparedStatement eldest = it.next().getValue();
+            it.remove();
+            closeQuietly(eldest);
+        }
+    }
+
+    // Adds every SQL text prepared from now on to sqlTexts; null stops recording
+    public synchronized void record(Set<String> sqlTexts) {
+        recorded = sqlTexts;
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    public synchronized int size() {
+        return statements.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        statements.values().forEach(StatementCache::closeQuietly);
+        statements.clear();
+    }
+
+    private static void closeQuietly(PreparedStatement pstmt) {
+        try {
+            pstmt.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+}
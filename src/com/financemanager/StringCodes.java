@@ -0,0 +1,36 @@
+package com.financemanager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Assigns small int codes to repeated strings such as categories and types, so columnar
+// models store one int per row. Codes are stable for the life of the process.
+final class StringCodes {
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    public synchronized int codeOf(String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    public synchronized String valueOf(int code) {
+        return values.get(code);
+    }
+
+    public synchronized int size() {
+        return values.size();
+    }
+
+    // Every value so far, indexed by code
+    public synchronized String[] values() {
+        return values.toArray(new String[0]);
+    }
+}
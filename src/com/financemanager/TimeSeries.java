@@ -0,0 +1,225 @@
+package com.financemanager;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.IsoFields;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Daily totals of one transaction type per category, held as prefix sums: the total of any
+// day range, for one category or all of them, is two array reads. Buckets of every granularity
+// are cut from the same arrays, so zooming from years to days never rescans transactions.
+// A write moves the prefix entries after its day, which costs the days covered, not the rows.
+final class TimeSeries {
+    enum Granularity {
+        YEAR("Year", DateTimeFormatter.ofPattern("yyyy")),
+        QUARTER("Quarter", null),
+        MONTH("Month", DateTimeFormatter.ofPattern("yyyy-MM")),
+        WEEK("Week", null),
+        DAY("Day", DateTimeFormatter.ISO_LOCAL_DATE);
+
+        private final String label;
+        private final DateTimeFormatter format;
+
+        Granularity(String label, DateTimeFormatter format) {
+            this.label = label;
+            this.format = format;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public static Granularity of(String label) {
+            for (Granularity granularity : values()) {
+                if (granularity.label.equals(label)) {
+                    return granularity;
+                }
+            }
+            throw new IllegalArgumentException("Unknown granularity: " + label);
+        }
+
+        // First day of the bucket holding day; weeks start on Monday
+        LocalDate start(LocalDate day) {
+            switch (this) {
+                case YEAR: return day.withDayOfYear(1);
+                case QUARTER: return day.withMonth((day.getMonthValue() - 1) / 3 * 3 + 1).withDayOfMonth(1);
+                case MONTH: return day.withDayOfMonth(1);
+                case WEEK: return day.minusDays(day.getDayOfWeek().getValue() - DayOfWeek.MONDAY.getValue());
+                default: return day;
+            }
+        }
+
+        LocalDate next(LocalDate start) {
+            switch (this) {
+                case YEAR: return start.plusYears(1);
+                case QUARTER: return start.plusMonths(3);
+                case MONTH: return start.plusMonths(1);
+                case WEEK: return start.plusWeeks(1);
+                default: return start.plusDays(1);
+            }
+        }
+
+        String label(LocalDate start) {
+            switch (this) {
+                case QUARTER: return start.getYear() + "-Q" + start.get(IsoFields.QUARTER_OF_YEAR);
+                case WEEK: return String.format("%d-W%02d", start.get(IsoFields.WEEK_BASED_YEAR),
+                        start.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+                default: return start.format(format);
+            }
+        }
+    }
+
+    // Epoch day of index 0 and the number of days covered
+    private int firstDay;
+    private int days;
+    // prefix[c][i] is category code c's total over the first i days; null for categories
+    // without a row. total is the same over all categories.
+    private long[][] prefix = new long[0][];
+    private long[] total = new long[1];
+
+    // Builds the prefix sums from the rows of one type in parallel columns, in one pass
+    static TimeSeries of(int rows, int[] days, int[] categories, long[] amounts, byte[] types, byte type) {
+        TimeSeries series = new TimeSeries();
+        int lo = Integer.MAX_VALUE;
+        int hi = Integer.MIN_VALUE;
+        int codes = 0;
+        for (int row = 0; row < rows; row++) {
+            if (types[row] == type) {
+                lo = Math.min(lo, days[row]);
+                hi = Math.max(hi, days[row]);
+                codes = Math.max(codes, categories[row] + 1);
+            }
+        }
+        if (lo > hi) {
+            return series;
+        }
+        series.firstDay = lo;
+        series.days = hi - lo + 1;
+        series.prefix = new long[codes][];
+        series.total = new long[series.days + 1];
+        // Daily totals at i + 1, then accumulated in place
+        for (int row = 0; row < rows; row++) {
+            if (types[row] == type) {
+                long[] daily = series.categoryPrefix(categories[row]);
+                daily[days[row] - lo + 1] += amounts[row];
+                series.total[days[row] - lo + 1] += amounts[row];
+            }
+        }
+        for (long[] daily : series.prefix) {
+            accumulate(daily);
+        }
+        accumulate(series.total);
+        return series;
+    }
+
+    private static void accumulate(long[] sums) {
+        if (sums != null) {
+            for (int i = 1; i < sums.length; i++) {
+                sums[i] += sums[i - 1];
+            }
+        }
+    }
+
+    private long[] categoryPrefix(int category) {
+        if (category >= prefix.length) {
+            prefix = Arrays.copyOf(prefix, category + 1);
+        }
+        if (prefix[category] == null) {
+            prefix[category] = new long[days + 1];
+        }
+        return prefix[category];
+    }
+
+    // Adds an amount, negative to take one back, on a day of a category
+    public void add(int day, int category, long amount) {
+        cover(day);
+        int from = day - firstDay + 1;
+        long[] sums = categoryPrefix(category);
+        for (int i = from; i <= days; i++) {
+            sums[i] += amount;
+            total[i] += amount;
+        }
+    }
+
+    // Widens the arrays to include day; earlier days shift the existing sums right
+    private void cover(int day) {
+        if (days == 0) {
+            firstDay = day;
+            days = 1;
+            total = new long[2];
+            Arrays.fill(prefix, null);
+            return;
+        }
+        int lo = Math.min(firstDay, day);
+        int hi = Math.max(firstDay + days - 1, day);
+        if (lo == firstDay && hi - lo + 1 == days) {
+            return;
+        }
+        int shift = firstDay - lo;
+        int length = hi - lo + 1;
+        total = widen(total, shift, length);
+        for (int c = 0; c < prefix.length; c++) {
+            if (prefix[c] != null) {
+                prefix[c] = widen(prefix[c], shift, length);
+            }
+        }
+        firstDay = lo;
+        days = length;
+    }
+
+    // Prefix sums over length days whose first shift days are new: zeros before the old
+    // range, its last sum carried after it
+    private static long[] widen(long[] sums, int shift, int length) {
+        long[] widened = new long[length + 1];
+        System.arraycopy(sums, 1, widened, shift + 1, sums.length - 1);
+        Arrays.fill(widened, shift + sums.length, length + 1, sums[sums.length - 1]);
+        return widened;
+    }
+
+    public boolean isEmpty() {
+        return days == 0;
+    }
+
+    public LocalDate getFirstDay() {
+        return days == 0 ? null : LocalDate.ofEpochDay(firstDay);
+    }
+
+    public LocalDate getLastDay() {
+        return days == 0 ? null : LocalDate.ofEpochDay(firstDay + days - 1);
+    }
+
+    // Total from..to inclusive for a category code, or all categories when category is -1
+    public long sum(int category, LocalDate from, LocalDate to) {
+        return sum(category, (int) from.toEpochDay(), (int) to.toEpochDay());
+    }
+
+    private long sum(int category, int from, int to) {
+        long[] sums = category < 0 ? total : category < prefix.length ? prefix[category] : null;
+        int lo = Math.max(from - firstDay, 0);
+        int hi = Math.min(to - firstDay, days - 1);
+        if (sums == null || lo > hi) {
+            return 0;
+        }
+        return sums[hi + 1] - sums[lo];
+    }
+
+    // Totals per bucket from..to, every bucket included so the line has no gaps; null ends
+    // default to the days covered. category is a code, or -1 for all categories.
+    public Map<String, Money> buckets(Granularity granularity, LocalDate from, LocalDate to, int category) {
+        Map<String, Money> buckets = new LinkedHashMap<>();
+        if (days == 0) {
+            return buckets;
+        }
+        LocalDate first = from != null ? from : getFirstDay();
+        LocalDate last = to != null ? to : getLastDay();
+        for (LocalDate start = granularity.start(first); !start.isAfter(last); start = granularity.next(start)) {
+            int lo = (int) Math.max(start.toEpochDay(), first.toEpochDay());
+            int hi = (int) Math.min(granularity.next(start).toEpochDay() - 1, last.toEpochDay());
+            buckets.put(granularity.label(start), Money.ofMinor(sum(category, lo, hi)));
+        }
+        return buckets;
+    }
+}
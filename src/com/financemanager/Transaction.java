@@ -0,0 +1,60 @@
+package com.financemanager;
+
+import java.time.LocalDateTime;
+
+class Transaction {
+    private int id;
+    private int userId;
+    private LocalDateTime date;
+    private String description;
+    private String category;
+    private long amount; // minor units
+    private String type;
+    public Transaction(int id, int userId, LocalDateTime date, String description,
+                       String category, Money amount, String type) {
+        this(id, userId, date, description, category, amount.getMinorUnits(), type);
+    }
+
+    public Transaction(int id, int userId, LocalDateTime date, String description,
+                       String category, long amountMinor, String type) {
+        this.id = id;
+        this.userId = userId;
+        this.date = date;
+        this.description = description;
+        this.category = category;
+        this.amount = amountMinor;
+        this.type = type;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public LocalDateTime getDate() {
+        return date;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public Money getAmount() {
+        return Money.ofMinor(amount);
+    }
+
+    public long getAmountMinor() {
+        return amount;
+    }
+
+    public String getType() {
+        return type;
+    }
+}
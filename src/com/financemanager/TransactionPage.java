@@ -0,0 +1,169 @@
+package com.financemanager;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+// One page of transactions rows stored column by column: primitive ids, epoch-millisecond
+// dates, minor-unit amounts and category/type codes instead of a Transaction and its
+// LocalDateTime per row. Rows are kept in table order.
+final class TransactionPage {
+    static final StringCodes CATEGORIES = new StringCodes();
+    static final StringCodes TYPES = new StringCodes();
+
+    private final int userId;
+    private int size;
+    private int[] ids;
+    private long[] dates;
+    private String[] descriptions;
+    private int[] categories;
+    private long[] amounts;
+    private int[] types;
+
+    TransactionPage(int userId, int capacity) {
+        this.userId = userId;
+        ids = new int[capacity];
+        dates = new long[capacity];
+        descriptions = new String[capacity];
+        categories = new int[capacity];
+        amounts = new long[capacity];
+        types = new int[capacity];
+    }
+
+    // Leaves room for the one-row overflow an insert carries into the next page
+    static TransactionPage of(int userId, List<Transaction> rows, int pageSize) {
+        TransactionPage page = new TransactionPage(userId, pageSize + 1);
+        for (Transaction t : rows) {
+            page.insert(page.size, t);
+        }
+        return page;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getId(int row) {
+        return ids[row];
+    }
+
+    public long getDate(int row) {
+        return dates[row];
+    }
+
+    public String getDescription(int row) {
+        return descriptions[row];
+    }
+
+    public String getCategory(int row) {
+        return CATEGORIES.valueOf(categories[row]);
+    }
+
+    public int getCategoryCode(int row) {
+        return categories[row];
+    }
+
+    public int getTypeCode(int row) {
+        return types[row];
+    }
+
+    public long getAmount(int row) {
+        return amounts[row];
+    }
+
+    public String getType(int row) {
+        return TYPES.valueOf(types[row]);
+    }
+
+    // Materializes a row for code that works with Transaction objects (dialogs, cursors)
+    public Transaction get(int row) {
+        return new Transaction(ids[row], userId, TransactionRowMapper.fromEpochMillis(dates[row]),
+                descriptions[row], getCategory(row), amounts[row], getType(row));
+    }
+
+    public int indexOf(int id) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public void set(int row, Transaction t) {
+        ids[row] = t.getId();
+        dates[row] = TransactionRowMapper.toEpochMillis(t.getDate());
+        descriptions[row] = t.getDescription();
+        categories[row] = CATEGORIES.codeOf(t.getCategory());
+        amounts[row] = t.getAmountMinor();
+        types[row] = TYPES.codeOf(t.getType());
+    }
+
+    public void insert(int row, Transaction t) {
+        if (size == ids.length) {
+            grow();
+        }
+        shift(row, row + 1, size - row);
+        size++;
+        set(row, t);
+    }
+
+    // Appends a row of another page without materializing it
+    public void append(TransactionPage source, int row) {
+        if (size == ids.length) {
+            grow();
+        }
+        ids[size] = source.ids[row];
+        dates[size] = source.dates[row];
+        descriptions[size] = source.descriptions[row];
+        categories[size] = source.categories[row];
+        amounts[size] = source.amounts[row];
+        types[size] = source.types[row];
+        size++;
+    }
+
+    // Appends the current row of a result set selecting TransactionRowMapper.COLUMNS, read
+    // straight into the columns
+    public void append(ResultSet rs) throws SQLException {
+        if (size == ids.length) {
+            grow();
+        }
+        ids[size] = rs.getInt(1);
+        dates[size] = rs.getLong(3);
+        descriptions[size] = rs.getString(4);
+        categories[size] = CATEGORIES.codeOf(rs.getString(5));
+        amounts[size] = rs.getLong(6);
+        types[size] = TYPES.codeOf(rs.getString(7));
+        size++;
+    }
+
+    public Transaction remove(int row) {
+        Transaction removed = get(row);
+        shift(row + 1, row, size - row - 1);
+        size--;
+        descriptions[size] = null;
+        return removed;
+    }
+
+    private void shift(int from, int to, int length) {
+        System.arraycopy(ids, from, ids, to, length);
+        System.arraycopy(dates, from, dates, to, length);
+        System.arraycopy(descriptions, from, descriptions, to, length);
+        System.arraycopy(categories, from, categories, to, length);
+        System.arraycopy(amounts, from, amounts, to, length);
+        System.arraycopy(types, from, types, to, length);
+    }
+
+    private void grow() {
+        // By half, as ArrayList does: a page grows by one overflow row at most, and a whole
+        // result held by the table grows by single inserts
+        int capacity = Math.max(8, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, capacity);
+        dates = Arrays.copyOf(dates, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        types = Arrays.copyOf(types, capacity);
+    }
+}
@@ -0,0 +1,210 @@
+package com.financemanager;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+
+// Immutable filter over one user's transactions. It compiles to a parameterized WHERE clause
+// whose equality and date-range terms are served by the (user_id, type|category, date, id)
+// indexes and whose text term by the full-text index; matches() applies the same test to
+// single rows arriving through data events. A null criterion matches everything.
+// The query also carries the order rows are listed in, which does not affect counts.
+final class TransactionQuery {
+    private final int userId;
+    private final String type;
+    private final String category;
+    private final LocalDate from;
+    private final LocalDate to;
+    private final FullTextQuery text;
+    private final TransactionSort sort;
+
+    private TransactionQuery(int userId, String type, String category, LocalDate from, LocalDate to,
+                             FullTextQuery text, TransactionSort sort) {
+        this.userId = userId;
+        this.type = type;
+        this.category = category;
+        this.from = from;
+        this.to = to;
+        this.text = text;
+        this.sort = sort;
+    }
+
+    static TransactionQuery forUser(int userId) {
+        return new TransactionQuery(userId, null, null, null, null, null, TransactionSort.NEWEST_FIRST);
+    }
+
+    public TransactionQuery withType(String type) {
+        return new TransactionQuery(userId, type, category, from, to, text, sort);
+    }
+
+    public TransactionQuery withCategory(String category) {
+        return new TransactionQuery(userId, type, category, from, to, text, sort);
+    }
+
+    // Both days inclusive; either may be null for an open range
+    public TransactionQuery withDateRange(LocalDate from, LocalDate to) {
+        return new TransactionQuery(userId, type, category, from, to, text, sort);
+    }
+
+    // Full-text search of the description (see FullTextQuery); blank clears it
+    public TransactionQuery withText(String text) {
+        return new TransactionQuery(userId, type, category, from, to, FullTextQuery.parse(text), sort);
+    }
+
+    public TransactionQuery withSort(TransactionSort sort) {
+        return new TransactionQuery(userId, type, category, from, to, text, sort);
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public String getText() {
+        return text == null ? null : text.getText();
+    }
+
+    public TransactionSort getSort() {
+        return sort;
+    }
+
+    public boolean isUnfiltered() {
+        return type == null && category == null && from == null && to == null && text == null;
+    }
+
+    // True when only type/category are set, which the monthly rollups can count exactly
+    public boolean isRollupCountable() {
+        return from == null && to == null && text == null;
+    }
+
+    // Conditions on the transactions table, placeholders bound by bind() in the same order.
+    // With a text term, "+user_id" keeps SQLite from walking the user's date index and testing
+    // every row against the match list; it looks up the matched rowids instead. Each such query
+    // runs the MATCH and sorts all matches in a temp B-tree, seeks included, so the table loads
+    // a search's matches once (TransactionTableModel) and pages through SQL only past that size.
+    public String where() {
+        StringBuilder sql = new StringBuilder(text == null ? "user_id = ?" : "+user_id = ?");
+        appendRollupTerms(sql);
+        if (from != null) {
+            sql.append(" AND date >= ?");
+        }
+        if (to != null) {
+            sql.append(" AND date < ?");
+        }
+        if (text != null) {
+            sql.append(" AND id IN (SELECT rowid FROM transactions_fts WHERE transactions_fts MATCH ?)");
+        }
+        return sql.toString();
+    }
+
+    // Conditions on transaction_rollups, valid only when isRollupCountable()
+    public String rollupWhere() {
+        StringBuilder sql = new StringBuilder("user_id = ?");
+        appendRollupTerms(sql);
+        return sql.toString();
+    }
+
+    private void appendRollupTerms(StringBuilder sql) {
+        if (type != null) {
+            sql.append(" AND type = ?");
+        }
+        if (category != null) {
+            sql.append(" AND category = ?");
+        }
+    }
+
+    // Binds the placeholders of where() (or rollupWhere()) and returns the next free index
+    public int bind(PreparedStatement pstmt, int index) throws SQLException {
+        pstmt.setInt(index++, userId);
+        if (type != null) {
+            pstmt.setString(index++, type);
+        }
+        if (category != null) {
+            pstmt.setString(index++, category);
+        }
+        if (from != null) {
+            pstmt.setLong(index++, TransactionRowMapper.toEpochMillis(from.atStartOfDay()));
+        }
+        if (to != null) {
+            pstmt.setLong(index++, TransactionRowMapper.toEpochMillis(to.plusDays(1).atStartOfDay()));
+        }
+        if (text != null) {
+            pstmt.setString(index++, text.toMatchExpression());
+        }
+        return index;
+    }
+
+    // Columns where() holds to a single value, left out of the order's SQL keys
+    private Set<TransactionSort.Column> constantColumns() {
+        Set<TransactionSort.Column> constant = EnumSet.noneOf(TransactionSort.Column.class);
+        if (type != null) {
+            constant.add(TransactionSort.Column.TYPE);
+        }
+        if (category != null) {
+            constant.add(TransactionSort.Column.CATEGORY);
+        }
+        return constant;
+    }
+
+    public String orderBy() {
+        return sort.orderBy(constantColumns());
+    }
+
+    // Condition for the rows after a cursor row in this query's order, bound by bindSeek()
+    public String seek() {
+        return sort.seek(constantColumns());
+    }
+
+    public int bindSeek(PreparedStatement pstmt, int index, Transaction after) throws SQLException {
+        return sort.bindSeek(pstmt, index, after, constantColumns());
+    }
+
+    public boolean matches(Transaction t) {
+        if (t.getUserId() != userId
+                || (type != null && !type.equals(t.getType()))
+                || (category != null && !category.equals(t.getCategory()))
+                || (from != null && t.getDate().toLocalDate().isBefore(from))
+                || (to != null && t.getDate().toLocalDate().isAfter(to))) {
+            return false;
+        }
+        return text == null || text.matches(t.getDescription());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TransactionQuery)) {
+            return false;
+        }
+        TransactionQuery other = (TransactionQuery) o;
+        return userId == other.userId && Objects.equals(type, other.type)
+                && Objects.equals(category, other.category) && Objects.equals(from, other.from)
+                && Objects.equals(to, other.to) && Objects.equals(text, other.text)
+                && sort.equals(other.sort);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, type, category, from, to, text, sort);
+    }
+}
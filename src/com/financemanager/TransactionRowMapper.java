@@ -0,0 +1,36 @@
+package com.financemanager;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+// Shared decoding of transactions rows. Queries select COLUMNS in this order so rows
+// are read by position; dates are epoch milliseconds of the local time, amounts minor units.
+final class TransactionRowMapper {
+    static final String COLUMNS = "id, user_id, date, description, category, amount, type";
+
+    private TransactionRowMapper() {
+    }
+
+    static Transaction map(ResultSet rs) throws SQLException {
+        return new Transaction(
+                rs.getInt(1),
+                rs.getInt(2),
+                fromEpochMillis(rs.getLong(3)),
+                rs.getString(4),
+                rs.getString(5),
+                rs.getLong(6),
+                rs.getString(7)
+        );
+    }
+
+    static long toEpochMillis(LocalDateTime date) {
+        return date.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    static LocalDateTime fromEpochMillis(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000),
+                Math.floorMod(millis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,333 @@
+package com.financemanager;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+// Order of the transactions table: the user's (column, direction) keys followed by date and id
+// as tiebreaks, so every row has a unique position and pages can be sought by keyset. Tiebreaks
+// take the direction of the last user key, which keeps a single-key sort in one direction: one
+// range scan over a (user_id, column, date, id) index, sought with a single row-value compare.
+// No index orders a date range by amount, category or type, a text search, or most multi-key
+// sorts; SQLite sorts those in a temp B-tree on each page query.
+// The same order is applied in SQL (orderBy/seek), to single rows from data events (compare),
+// and to fully loaded pages in memory (order), where it sorts primitive columns without boxing.
+// Text columns compare as Java strings, as SQLite's BINARY collation does within the BMP.
+final class TransactionSort {
+    enum Column {
+        DATE("date", true),
+        AMOUNT("amount", true),
+        CATEGORY("category", false),
+        TYPE("type", false),
+        ID("id", true);
+
+        private final String sql;
+        // Direction a first click sorts in: newest and largest first, names A to Z
+        private final boolean descendingFirst;
+
+        Column(String sql, boolean descendingFirst) {
+            this.sql = sql;
+            this.descendingFirst = descendingFirst;
+        }
+    }
+
+    private static final class Key {
+        private final Column column;
+        private final boolean descending;
+
+        Key(Column column, boolean descending) {
+            this.column = column;
+            this.descending = descending;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && ((Key) o).column == column && ((Key) o).descending == descending;
+        }
+
+        @Override
+        public int hashCode() {
+            return column.hashCode() * 31 + Boolean.hashCode(descending);
+        }
+    }
+
+    static final TransactionSort NEWEST_FIRST =
+            new TransactionSort(Collections.singletonList(new Key(Column.DATE, true)));
+
+    // As chosen by the user; keys holds them plus the tiebreaks
+    private final List<Key> userKeys;
+    private final Key[] keys;
+
+    private TransactionSort(List<Key> userKeys) {
+        this.userKeys = userKeys;
+        List<Key> all = new ArrayList<>(userKeys);
+        boolean tiebreakDescending = userKeys.get(userKeys.size() - 1).descending;
+        if (indexOf(userKeys, Column.DATE) < 0) {
+            all.add(new Key(Column.DATE, tiebreakDescending));
+        }
+        all.add(new Key(Column.ID, tiebreakDescending));
+        this.keys = all.toArray(new Key[0]);
+    }
+
+    // Sorts by the column alone; when it already leads, reverses it
+    public TransactionSort by(Column column) {
+        Key first = userKeys.get(0);
+        boolean descending = first.column == column && userKeys.size() == 1
+                ? !first.descending : column.descendingFirst;
+        return new TransactionSort(Collections.singletonList(new Key(column, descending)));
+    }
+
+    // Adds the column as the last key; when it is already a key, reverses it in place
+    public TransactionSort thenBy(Column column) {
+        List<Key> next = new ArrayList<>(userKeys);
+        int index = indexOf(next, column);
+        if (index >= 0) {
+            next.set(index, new Key(column, !next.get(index).descending));
+        } else {
+            next.add(new Key(column, column.descendingFirst));
+        }
+        return new TransactionSort(next);
+    }
+
+    // 1-based position among the user's keys, 0 when the column is not one of them
+    public int positionOf(Column column) {
+        return indexOf(userKeys, column) + 1;
+    }
+
+    public boolean isDescending(Column column) {
+        int index = indexOf(userKeys, column);
+        return index >= 0 && userKeys.get(index).descending;
+    }
+
+    public int getKeyCount() {
+        return userKeys.size();
+    }
+
+    private static int indexOf(List<Key> keys, Column column) {
+        for (int i = 0; i < keys.size(); i++) {
+            if (keys.get(i).column == column) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // SQL takes the keys without the columns a query holds to one value (see
+    // TransactionQuery.constantColumns()): comparing a constant changes no position, but in a
+    // seek it would keep SQLite from reading the rest of the (user_id, column, date, id) index
+    // in order, and it would sort the remaining rows instead
+    public String orderBy(Set<Column> constant) {
+        StringBuilder sql = new StringBuilder();
+        for (Key key : sqlKeys(constant)) {
+            if (sql.length() > 0) {
+                sql.append(", ");
+            }
+            sql.append(key.column.sql).append(key.descending ? " DESC" : " ASC");
+        }
+        return sql.toString();
+    }
+
+    // Condition for the rows after a cursor row, bound by bindSeek(). Consecutive keys of one
+    // direction are compared as a row value; a direction change splits the test into an OR
+    // over "earlier groups equal and this group past the cursor".
+    public String seek(Set<Column> constant) {
+        List<Key[]> groups = groups(sqlKeys(constant));
+        if (groups.size() == 1) {
+            return past(groups.get(0));
+        }
+        StringBuilder sql = new StringBuilder("(");
+        for (int i = 0; i < groups.size(); i++) {
+            sql.append(i == 0 ? "(" : " OR (");
+            for (int j = 0; j < i; j++) {
+                sql.append(rowValue(groups.get(j))).append(" = ").append(placeholders(groups.get(j))).append(" AND ");
+            }
+            sql.append(past(groups.get(i))).append(')');
+        }
+        return sql.append(')').toString();
+    }
+
+    private static String past(Key[] group) {
+        return rowValue(group) + (group[0].descending ? " < " : " > ") + placeholders(group);
+    }
+
+    // Binds the placeholders of seek() from the cursor row and returns the next free index
+    public int bindSeek(PreparedStatement pstmt, int index, Transaction after, Set<Column> constant)
+            throws SQLException {
+        List<Key[]> groups = groups(sqlKeys(constant));
+        for (int i = 0; i < groups.size(); i++) {
+            for (int j = 0; j <= i; j++) {
+                for (Key key : groups.get(j)) {
+                    index = bind(pstmt, index, key.column, after);
+                }
+            }
+        }
+        return index;
+    }
+
+    private static int bind(PreparedStatement pstmt, int index, Column column, Transaction t) throws SQLException {
+        switch (column) {
+            case DATE: pstmt.setLong(index, TransactionRowMapper.toEpochMillis(t.getDate())); break;
+            case AMOUNT: pstmt.setLong(index, t.getAmountMinor()); break;
+            case CATEGORY: pstmt.setString(index, t.getCategory()); break;
+            case TYPE: pstmt.setString(index, t.getType()); break;
+            default: pstmt.setInt(index, t.getId()); break;
+        }
+        return index + 1;
+    }
+
+    private Key[] sqlKeys(Set<Column> constant) {
+        List<Key> varying = new ArrayList<>();
+        for (Key key : keys) {
+            if (!constant.contains(key.column)) {
+                varying.add(key);
+            }
+        }
+        return varying.toArray(new Key[0]);
+    }
+
+    private static List<Key[]> groups(Key[] keys) {
+        List<Key[]> groups = new ArrayList<>();
+        int start = 0;
+        for (int i = 1; i <= keys.length; i++) {
+            if (i == keys.length || keys[i].descending != keys[start].descending) {
+                groups.add(Arrays.copyOfRange(keys, start, i));
+                start = i;
+            }
+        }
+        return groups;
+    }
+
+    private static String rowValue(Key[] group) {
+        if (group.length == 1) {
+            return group[0].column.sql;
+        }
+        StringBuilder sql = new StringBuilder("(");
+        for (int i = 0; i < group.length; i++) {
+            sql.append(i == 0 ? "" : ", ").append(group[i].column.sql);
+        }
+        return sql.append(')').toString();
+    }
+
+    private static String placeholders(Key[] group) {
+        if (group.length == 1) {
+            return "?";
+        }
+        StringBuilder sql = new StringBuilder("(");
+        for (int i = 0; i < group.length; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        return sql.append(')').toString();
+    }
+
+    // Negative when a is shown before b
+    public int compare(Transaction a, Transaction b) {
+        for (Key key : keys) {
+            int c;
+            switch (key.column) {
+                case DATE: c = a.getDate().compareTo(b.getDate()); break;
+                case AMOUNT: c = Long.compare(a.getAmountMinor(), b.getAmountMinor()); break;
+                case CATEGORY: c = a.getCategory().compareTo(b.getCategory()); break;
+                case TYPE: c = a.getType().compareTo(b.getType()); break;
+                default: c = Integer.compare(a.getId(), b.getId()); break;
+            }
+            if (c != 0) {
+                return key.descending ? -c : c;
+            }
+        }
+        return 0;
+    }
+
+    // Negative when the page row is shown before t
+    public int compare(TransactionPage page, int row, Transaction t) {
+        for (Key key : keys) {
+            int c;
+            switch (key.column) {
+                case DATE: c = Long.compare(page.getDate(row), TransactionRowMapper.toEpochMillis(t.getDate())); break;
+                case AMOUNT: c = Long.compare(page.getAmount(row), t.getAmountMinor()); break;
+                case CATEGORY: c = page.getCategory(row).compareTo(t.getCategory()); break;
+                case TYPE: c = page.getType(row).compareTo(t.getType()); break;
+                default: c = Integer.compare(page.getId(row), t.getId()); break;
+            }
+            if (c != 0) {
+                return key.descending ? -c : c;
+            }
+        }
+        return 0;
+    }
+
+    // True when an update changed none of the values this order looks at; the id is the same
+    public boolean keepsPosition(Transaction before, Transaction after) {
+        return compare(before, after) == 0;
+    }
+
+    // Row indexes of the page in this order. Each key becomes a long[] column, bit-flipped for
+    // descending keys and rank-mapped for text, so the merge sort compares primitives only.
+    public int[] order(TransactionPage page) {
+        int size = page.size();
+        long[][] columns = new long[keys.length][];
+        for (int k = 0; k < keys.length; k++) {
+            long[] values = new long[size];
+            Column column = keys[k].column;
+            int[] ranks = column == Column.CATEGORY ? ranks(TransactionPage.CATEGORIES)
+                    : column == Column.TYPE ? ranks(TransactionPage.TYPES) : null;
+            for (int row = 0; row < size; row++) {
+                switch (column) {
+                    case DATE: values[row] = page.getDate(row); break;
+                    case AMOUNT: values[row] = page.getAmount(row); break;
+                    case CATEGORY: values[row] = ranks[page.getCategoryCode(row)]; break;
+                    case TYPE: values[row] = ranks[page.getTypeCode(row)]; break;
+                    default: values[row] = page.getId(row); break;
+                }
+                if (keys[k].descending) {
+                    values[row] = ~values[row];
+                }
+            }
+            columns[k] = values;
+        }
+
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        IndexSort.sort(order, (a, b) -> {
+            for (long[] values : columns) {
+                int c = Long.compare(values[a], values[b]);
+                if (c != 0) {
+                    return c;
+                }
+            }
+            return 0;
+        });
+        return order;
+    }
+
+    // Position of each code's string in sorted order
+    private static int[] ranks(StringCodes codes) {
+        String[] values = codes.values();
+        Integer[] byValue = new Integer[values.length];
+        for (int i = 0; i < values.length; i++) {
+            byValue[i] = i;
+        }
+        Arrays.sort(byValue, (a, b) -> values[a].compareTo(values[b]));
+        int[] ranks = new int[values.length];
+        for (int rank = 0; rank < byValue.length; rank++) {
+            ranks[byValue[rank]] = rank;
+        }
+        return ranks;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof TransactionSort && ((TransactionSort) o).userKeys.equals(userKeys);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userKeys);
+    }
+}
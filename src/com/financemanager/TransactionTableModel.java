@@ -0,0 +1,515 @@
+package com.financemanager;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+
+// Lazy transactions table: rows are fetched a page at a time with keyset pagination in the
+// query's TransactionSort order (newest first by default), and only a bounded number of pages
+// is kept in memory. A result of up to FULL_LOAD_ROWS rows is loaded whole on its first re-sort
+// into one columnar TransactionPage held apart from the page cache until the query changes;
+// later re-sorts reorder it in memory and pages are cut from it instead of queried. A text
+// search of up to FULL_LOAD_ROWS matches is loaded whole as soon as it is counted.
+// Pages load in the background; rows show a placeholder until their page arrives.
+// Single-row DataEvents are applied to the cached pages in place rather than reloading.
+// Rows are limited to a TransactionQuery evaluated in SQL; changing it cancels queued loads.
+// Cells are typed (epoch-millisecond dates, minor-unit amounts) and formatted by renderers.
+@SuppressWarnings("serial") // Never serialized
+class TransactionTableModel extends AbstractTableModel implements DataEventBus.Listener {
+    static final int PAGE_SIZE = 200;
+    private static final int MAX_CACHED_PAGES = 25;
+    private static final int FULL_LOAD_ROWS = 500_000;
+    private static final String[] COLUMNS = {"ID", "Date", "Description", "Category", "Amount", "Type", "Actions"};
+    static final int DATE_COLUMN = 1;
+    static final int AMOUNT_COLUMN = 4;
+    // Column each table column sorts by; null where the header does not sort
+    private static final TransactionSort.Column[] SORT_COLUMNS = {null, TransactionSort.Column.DATE, null,
+            TransactionSort.Column.CATEGORY, TransactionSort.Column.AMOUNT, TransactionSort.Column.TYPE, null};
+
+    private static final String LOADING = "Loading...";
+
+    private final AsyncDataService dataService;
+    private final int userId;
+    private final LinkedHashMap<Integer, TransactionPage> pages =
+            new LinkedHashMap<Integer, TransactionPage>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, TransactionPage> eldest) {
+                    return size() > MAX_CACHED_PAGES;
+                }
+            };
+    // Last row of page n - 1, i.e. the keyset cursor that starts page n
+    private final Map<Integer, Transaction> cursors = new HashMap<>();
+    private final Map<Integer, CompletableFuture<TransactionPage>> loadingPages = new HashMap<>();
+    private CompletableFuture<Integer> loadingCount;
+    // Every row of the query in its order, or null; rows change with data events like pages do
+    private TransactionPage allRows;
+    private CompletableFuture<TransactionPage> loadingAllRows;
+    // Bumped when the query changes so an in-flight full load is dropped
+    private int allRowsGeneration;
+    // Set by a data event that a full load in flight may have missed
+    private boolean allRowsStale;
+    private TransactionQuery query;
+    // Bumped on reload so results of requests issued before it are dropped
+    private int generation;
+    // Bumped when rows shift under cached pages so in-flight page loads are dropped
+    private int pageGeneration;
+    private int rowCount;
+
+    public TransactionTableModel(AsyncDataService dataService, int userId) {
+        this.dataService = dataService;
+        this.userId = userId;
+        this.query = TransactionQuery.forUser(userId);
+        reload();
+    }
+
+    public TransactionQuery getQuery() {
+        return query;
+    }
+
+    public void setQuery(TransactionQuery query) {
+        if (!query.equals(this.query)) {
+            this.query = query;
+            reload();
+        }
+    }
+
+    public static TransactionSort.Column sortColumnOf(int column) {
+        return column >= 0 && column < SORT_COLUMNS.length ? SORT_COLUMNS[column] : null;
+    }
+
+    // Same rows in a new order: sorted in memory when every row is held, else paged in again
+    // while the whole result loads for the next re-sort
+    public void setSort(TransactionSort sort) {
+        if (sort.equals(query.getSort())) {
+            return;
+        }
+        query = query.withSort(sort);
+        discardPages();
+        if (allRows != null) {
+            sortAllRows();
+        } else if (loadingCount.isDone() && rowCount <= FULL_LOAD_ROWS) {
+            loadAllRows();
+        } else {
+            dropAllRows();
+        }
+        fireTableDataChanged();
+    }
+
+    // Streams the query's rows into one TransactionPage in the background
+    private void loadAllRows() {
+        int expected = ++allRowsGeneration;
+        TransactionQuery current = query;
+        int count = rowCount;
+        if (loadingAllRows != null) {
+            loadingAllRows.cancel(false);
+        }
+        loadingAllRows = dataService.submit(db -> db.getTransactionColumns(current, null, count));
+        AsyncDataService.onEdt(loadingAllRows, rows -> {
+            if (expected != allRowsGeneration) {
+                return; // The query changed while loading
+            }
+            loadingAllRows = null;
+            allRows = rows;
+            if (rows.size() != rowCount) {
+                discardPages();
+                rowCount = rows.size();
+                fireTableDataChanged();
+            }
+        });
+    }
+
+    private void dropAllRows() {
+        allRowsGeneration++;
+        if (loadingAllRows != null) {
+            loadingAllRows.cancel(false);
+            loadingAllRows = null;
+        }
+        allRows = null;
+        allRowsStale = false;
+    }
+
+    private void sortAllRows() {
+        int[] order = query.getSort().order(allRows);
+        TransactionPage sorted = new TransactionPage(userId, order.length + 1);
+        for (int row : order) {
+            sorted.append(allRows, row);
+        }
+        allRows = sorted;
+    }
+
+    // Copies a page out of allRows into the page cache
+    private TransactionPage cutPage(int pageIndex) {
+        TransactionPage page = new TransactionPage(userId, PAGE_SIZE + 1);
+        int end = Math.min((pageIndex + 1) * PAGE_SIZE, allRows.size());
+        for (int row = pageIndex * PAGE_SIZE; row < end; row++) {
+            page.append(allRows, row);
+        }
+        pages.put(pageIndex, page);
+        if (page.size() > 0) {
+            cursors.put(pageIndex + 1, page.get(page.size() - 1));
+        }
+        return page;
+    }
+
+    // Position a row takes in allRows, by binary search in the query's order
+    private int positionInAllRows(Transaction t) {
+        TransactionSort sort = query.getSort();
+        int low = 0;
+        int high = allRows.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sort.compare(allRows, mid, t) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public void reload() {
+        int expected = ++generation;
+        discardPages();
+        dropAllRows();
+        if (loadingCount != null) {
+            loadingCount.cancel(false);
+        }
+        loadingCount = dataService.getTransactionCount(query);
+        AsyncDataService.onEdt(loadingCount, count -> {
+            if (expected == generation) {
+                rowCount = count;
+                fireTableDataChanged();
+                if (query.getText() != null && count <= FULL_LOAD_ROWS) {
+                    // Every page query of a text search re-runs the MATCH and sorts all matches;
+                    // load them once and cut pages from memory
+                    loadAllRows();
+                }
+            }
+        });
+    }
+
+    // Starts loading the first page before the table is shown
+    public void prefetch() {
+        if (!pages.containsKey(0)) {
+            requestPage(0);
+        }
+    }
+
+    // Null while the row's page is still loading
+    public Transaction getTransactionAt(int row) {
+        TransactionPage page = pageOf(row);
+        int offset = row % PAGE_SIZE;
+        return page != null && offset < page.size() ? page.get(offset) : null;
+    }
+
+    private TransactionPage pageOf(int row) {
+        int pageIndex = row / PAGE_SIZE;
+        TransactionPage page = pages.get(pageIndex);
+        if (page == null && allRows != null) {
+            page = cutPage(pageIndex);
+        } else if (page == null) {
+            requestPage(pageIndex);
+        }
+        return page;
+    }
+
+    private void requestPage(int pageIndex) {
+        if (loadingPages.containsKey(pageIndex)) {
+            return;
+        }
+        int expected = pageGeneration;
+        TransactionQuery current = query;
+        // Nearest page at or before this one whose start is known; cursors outlive evicted pages
+        int from = pageIndex;
+        while (from > 0 && !cursors.containsKey(from)) {
+            from--;
+        }
+        int skipped = (pageIndex - from) * PAGE_SIZE;
+        Transaction knownCursor = from == 0 ? null : cursors.get(from);
+        CompletableFuture<TransactionPage> load = dataService.submit(db -> {
+            Transaction cursor = knownCursor;
+            if (skipped > 0) {
+                // Jumped past any page we have seen: seek the boundary row from the nearest cursor
+                cursor = db.getTransactionAt(current, knownCursor, skipped - 1);
+                if (cursor == null) {
+                    return new TransactionPage(userId, PAGE_SIZE + 1);
+                }
+            }
+            return db.getTransactionColumns(current, cursor, PAGE_SIZE);
+        });
+        loadingPages.put(pageIndex, load);
+        AsyncDataService.onEdt(load, page -> {
+            if (expected != pageGeneration) {
+                return;
+            }
+            loadingPages.remove(pageIndex);
+            pages.put(pageIndex, page);
+            if (page.size() > 0) {
+                cursors.put(pageIndex + 1, page.get(page.size() - 1));
+            }
+            int first = pageIndex * PAGE_SIZE;
+            int last = Math.min(first + PAGE_SIZE, rowCount) - 1;
+            if (first <= last) {
+                fireTableRowsUpdated(first, last);
+            }
+        }, () -> {
+            if (expected == pageGeneration) {
+                loadingPages.remove(pageIndex);
+            }
+        });
+    }
+
+    private void discardPages() {
+        cancelPageLoads();
+        pages.clear();
+        cursors.clear();
+    }
+
+    // Drops cached pages and cursors after pageIndex, whose offsets no longer hold
+    private void discardPagesAfter(int pageIndex) {
+        cancelPageLoads();
+        pages.keySet().removeIf(k -> k > pageIndex);
+        cursors.keySet().removeIf(k -> k > pageIndex);
+    }
+
+    // Loads that have not started yet are skipped; running ones finish and are ignored
+    private void cancelPageLoads() {
+        pageGeneration++;
+        for (CompletableFuture<TransactionPage> load : loadingPages.values()) {
+            load.cancel(false);
+        }
+        loadingPages.clear();
+    }
+
+    @Override
+    public void onEvents(List<DataEvent> events) {
+        for (DataEvent event : events) {
+            if (event instanceof DataEvent.TransactionsReloaded) {
+                if (((DataEvent.TransactionsReloaded) event).affects(userId)) {
+                    reload();
+                    return;
+                }
+            } else if (event.getUserId() != userId) {
+                continue;
+            } else if (event instanceof DataEvent.TransactionAdded) {
+                Transaction added = ((DataEvent.TransactionAdded) event).getTransaction();
+                if (query.matches(added)) {
+                    insert(added);
+                }
+            } else if (event instanceof DataEvent.TransactionUpdated) {
+                DataEvent.TransactionUpdated update = (DataEvent.TransactionUpdated) event;
+                boolean wasShown = query.matches(update.getBefore());
+                boolean isShown = query.matches(update.getAfter());
+                if (wasShown && isShown && query.getSort().keepsPosition(update.getBefore(), update.getAfter())) {
+                    replace(update.getAfter());
+                } else if (wasShown && isShown) {
+                    remove(update.getBefore().getId());
+                    insert(update.getAfter());
+                } else if (wasShown) {
+                    remove(update.getBefore().getId());
+                } else if (isShown) {
+                    insert(update.getAfter());
+                }
+            } else if (event instanceof DataEvent.TransactionDeleted) {
+                Transaction deleted = ((DataEvent.TransactionDeleted) event).getTransaction();
+                if (query.matches(deleted)) {
+                    remove(deleted.getId());
+                }
+            }
+        }
+        if (allRowsStale) {
+            loadAllRows();
+            allRowsStale = false;
+        }
+    }
+
+    // Table order: newest date first, then highest id
+    static boolean precedes(Transaction a, Transaction b) {
+        int byDate = a.getDate().compareTo(b.getDate());
+        return byDate > 0 || (byDate == 0 && a.getId() > b.getId());
+    }
+
+    private void insert(Transaction t) {
+        allRowsStale |= loadingAllRows != null;
+        if (allRows != null) {
+            if (allRows.indexOf(t.getId()) >= 0) {
+                return; // Already read by the full load
+            }
+            int row = positionInAllRows(t);
+            allRows.insert(row, t);
+            discardPages();
+            rowCount = allRows.size();
+            fireTableRowsInserted(row, row);
+            return;
+        }
+        TransactionSort sort = query.getSort();
+        for (int pageIndex : new TreeSet<>(pages.keySet())) {
+            Transaction before = pageIndex == 0 ? null : cursors.get(pageIndex);
+            if (pageIndex > 0 && (before == null || sort.compare(before, t) >= 0)) {
+                continue;
+            }
+            TransactionPage page = pages.get(pageIndex);
+            int offset = 0;
+            while (offset < page.size() && sort.compare(page, offset, t) < 0) {
+                offset++;
+            }
+            boolean lastPage = pageIndex * PAGE_SIZE + page.size() >= rowCount;
+            if (offset < page.size() || lastPage) {
+                insertAt(pageIndex, offset, t);
+                return;
+            }
+        }
+        // Lands in a part of the table we hold no pages for: its row index is unknown
+        discardPages();
+        rowCount++;
+        fireTableDataChanged();
+    }
+
+    // Inserts into a cached page and carries each page's overflow row into the next one
+    private void insertAt(int pageIndex, int offset, Transaction t) {
+        int row = pageIndex * PAGE_SIZE + offset;
+        Transaction carry = t;
+        int k = pageIndex;
+        int position = offset;
+        while (true) {
+            TransactionPage page = pages.get(k);
+            if (page == null) {
+                discardPagesAfter(k);
+                break;
+            }
+            page.insert(position, carry);
+            if (page.size() <= PAGE_SIZE) {
+                break;
+            }
+            carry = page.remove(PAGE_SIZE);
+            cursors.put(k + 1, page.get(PAGE_SIZE - 1));
+            k++;
+            position = 0;
+        }
+        cancelPageLoads();
+        rowCount++;
+        fireTableRowsInserted(row, row);
+    }
+
+    private void replace(Transaction t) {
+        allRowsStale |= loadingAllRows != null;
+        int held = allRows == null ? -1 : allRows.indexOf(t.getId());
+        if (held >= 0) {
+            allRows.set(held, t);
+        }
+        for (Map.Entry<Integer, TransactionPage> entry : pages.entrySet()) {
+            int offset = entry.getValue().indexOf(t.getId());
+            if (offset >= 0) {
+                entry.getValue().set(offset, t);
+                int row = entry.getKey() * PAGE_SIZE + offset;
+                fireTableRowsUpdated(row, row);
+                return;
+            }
+        }
+    }
+
+    // Removes a row and pulls the first row of each following cached page back by one
+    private void remove(int transactionId) {
+        allRowsStale |= loadingAllRows != null;
+        if (allRows != null) {
+            int row = allRows.indexOf(transactionId);
+            if (row >= 0) {
+                allRows.remove(row);
+                discardPages();
+                rowCount = allRows.size();
+                fireTableRowsDeleted(row, row);
+            }
+            return;
+        }
+        for (int pageIndex : new TreeSet<>(pages.keySet())) {
+            TransactionPage page = pages.get(pageIndex);
+            int offset = page.indexOf(transactionId);
+            if (offset < 0) {
+                continue;
+            }
+            int row = pageIndex * PAGE_SIZE + offset;
+            page.remove(offset);
+            int k = pageIndex;
+            while ((k + 1) * PAGE_SIZE < rowCount) {
+                TransactionPage next = pages.get(k + 1);
+                if (next == null || next.size() == 0) {
+                    // Page k is now one short; refetch it from its own cursor
+                    pages.remove(k);
+                    discardPagesAfter(k);
+                    break;
+                }
+                TransactionPage current = pages.get(k);
+                current.insert(current.size(), next.remove(0));
+                cursors.put(k + 1, current.get(PAGE_SIZE - 1));
+                k++;
+            }
+            cancelPageLoads();
+            rowCount--;
+            fireTableRowsDeleted(row, row);
+            return;
+        }
+        // Not in any cached page: its row index is unknown
+        discardPages();
+        rowCount--;
+        fireTableDataChanged();
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    // Sorted columns carry their direction and, with several sort keys, their position
+    @Override
+    public String getColumnName(int column) {
+        TransactionSort.Column sortColumn = sortColumnOf(column);
+        TransactionSort sort = query.getSort();
+        if (sortColumn == null || sort.positionOf(sortColumn) == 0) {
+            return COLUMNS[column];
+        }
+        String name = COLUMNS[column] + (sort.isDescending(sortColumn) ? " ▼" : " ▲");
+        return sort.getKeyCount() > 1 ? name + sort.positionOf(sortColumn) : name;
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        switch (column) {
+            case 0: return Integer.class;
+            case DATE_COLUMN:
+            case AMOUNT_COLUMN: return Long.class;
+            default: return String.class;
+        }
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return column == 6; // Only actions column is editable
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        TransactionPage page = pageOf(row);
+        int offset = row % PAGE_SIZE;
+        if (page == null || offset >= page.size()) {
+            return column == 6 ? "Actions" : column == 2 ? LOADING : null;
+        }
+        switch (column) {
+            case 0: return page.getId(offset);
+            case DATE_COLUMN: return page.getDate(offset);
+            case 2: return page.getDescription(offset);
+            case 3: return page.getCategory(offset);
+            case AMOUNT_COLUMN: return page.getAmount(offset);
+            case 5: return page.getType(offset);
+            default: return "Actions";
+        }
+    }
+}